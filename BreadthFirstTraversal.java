@@ -1,8 +1,5 @@
 package graph;
 
-import java.util.LinkedList;
-
-
 /* See restrictions in Graph.java. */
 
 /**
@@ -18,7 +15,7 @@ public class BreadthFirstTraversal extends Traversal {
      * A breadth-first Traversal of G.
      */
     protected BreadthFirstTraversal(Graph G) {
-        super(G, new LinkedList<Integer>());
+        super(G, IntQueue.fifo());
     }
 
     @Override
@@ -0,0 +1,252 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+
+/**
+ * A partition of the vertices of a graph into components, numbered
+ * 1 .. count().  strong() finds the strongly connected components, in
+ * which each vertex can reach every other, and connected() the connected
+ * components, in which edges are followed in either direction (for a
+ * directed graph, the weakly connected components).  Both take time
+ * O(V + E) and use no recursion, so that they work on graphs with paths
+ * of any length.
+ * <p>
+ * A Components reflects its graph as it was when created.
+ */
+public final class Components {
+
+    /**
+     * Returns the strongly connected components of G, found by Tarjan's
+     * algorithm.  They are numbered in the order they are completed,
+     * which is a reverse topological order: every edge between different
+     * components leads from a higher-numbered to a lower-numbered one.
+     */
+    public static Components strong(Graph G) {
+        int n = G.maxVertex() + 1;
+        Components result = new Components(n);
+        int[] ids = result._ids;
+        int[] index = new int[n], low = new int[n];
+        int[] open = new int[n];
+        int opened = 0;
+        int[] frames = new int[FRAME * INITIAL_CAPACITY];
+        int depth = 0;
+        int[] successors = new int[INITIAL_CAPACITY];
+        int top = 0;
+        int counter = 0;
+        for (IntIteration roots = G.vertexInts(); roots.hasNext(); ) {
+            int r = roots.nextInt();
+            if (index[r] != 0) {
+                continue;
+            }
+            int v = r;
+            while (true) {
+                if (v != 0) {
+                    counter += 1;
+                    index[v] = low[v] = counter;
+                    open[opened] = v;
+                    opened += 1;
+                    if (FRAME * (depth + 1) > frames.length) {
+                        frames = Arrays.copyOf(frames, 2 * frames.length);
+                    }
+                    frames[FRAME * depth] = v;
+                    frames[FRAME * depth + 1] = top;
+                    frames[FRAME * depth + 2] = top;
+                    depth += 1;
+                    for (IntIteration next = G.successorInts(v);
+                         next.hasNext(); ) {
+                        if (top == successors.length) {
+                            successors = Arrays.copyOf(successors, 2 * top);
+                        }
+                        successors[top] = next.nextInt();
+                        top += 1;
+                    }
+                    v = 0;
+                }
+                if (depth == 0) {
+                    break;
+                }
+                int f = FRAME * (depth - 1);
+                int u = frames[f];
+                if (frames[f + 2] < top) {
+                    int w = successors[frames[f + 2]];
+                    frames[f + 2] += 1;
+                    if (index[w] == 0) {
+                        v = w;
+                    } else if (ids[w] == 0) {
+                        low[u] = Math.min(low[u], index[w]);
+                    }
+                    continue;
+                }
+                depth -= 1;
+                top = frames[f + 1];
+                if (low[u] == index[u]) {
+                    result._count += 1;
+                    int w;
+                    do {
+                        opened -= 1;
+                        w = open[opened];
+                        ids[w] = result._count;
+                    } while (w != u);
+                }
+                if (depth > 0) {
+                    int p = frames[FRAME * (depth - 1)];
+                    low[p] = Math.min(low[p], low[u]);
+                }
+            }
+        }
+        result.group();
+        return result;
+    }
+
+    /**
+     * Returns the connected components of G, treating each edge as
+     * undirected.  They are numbered in the order in which their first
+     * vertices appear in G.vertexInts().
+     */
+    public static Components connected(Graph G) {
+        Components result = new Components(G.maxVertex() + 1);
+        int[] ids = result._ids;
+        IntQueue fringe = IntQueue.fifo();
+        for (IntIteration roots = G.vertexInts(); roots.hasNext(); ) {
+            int r = roots.nextInt();
+            if (ids[r] != 0) {
+                continue;
+            }
+            result._count += 1;
+            ids[r] = result._count;
+            fringe.addInt(r);
+            while (!fringe.isEmpty()) {
+                int v = fringe.removeInt();
+                for (int pass = 0; pass < 2; pass += 1) {
+                    IntIteration next = pass == 0 ? G.successorInts(v)
+                        : G.predecessorInts(v);
+                    while (next.hasNext()) {
+                        int w = next.nextInt();
+                        if (ids[w] == 0) {
+                            ids[w] = result._count;
+                            fringe.addInt(w);
+                        }
+                    }
+                    if (!G.isDirected()) {
+                        break;
+                    }
+                }
+            }
+        }
+        result.group();
+        return result;
+    }
+
+    /**
+     * An empty partition of vertices 1 .. N-1.
+     */
+    private Components(int n) {
+        _ids = new int[n];
+    }
+
+    /**
+     * Returns the number of components.
+     */
+    public int count() {
+        return _count;
+    }
+
+    /**
+     * Returns the number of the component containing V, or 0 if V was
+     * not a vertex of the graph.
+     */
+    public int component(int v) {
+        return v > 0 && v < _ids.length ? _ids[v] : 0;
+    }
+
+    /**
+     * Returns true iff U and V are vertices in the same component.
+     */
+    public boolean same(int u, int v) {
+        return component(u) != 0 && component(u) == component(v);
+    }
+
+    /**
+     * Returns the number of vertices in component C.
+     */
+    public int size(int c) {
+        checkComponent(c);
+        return _starts[c + 1] - _starts[c];
+    }
+
+    /**
+     * Returns the vertices of component C, in increasing order.
+     */
+    public int[] members(int c) {
+        checkComponent(c);
+        return Arrays.copyOfRange(_members, _starts[c], _starts[c + 1]);
+    }
+
+    /**
+     * Returns an array whose element V is component(V), for each V up to
+     * the maximum vertex of the graph.  It is mine; do not modify it.
+     */
+    public int[] ids() {
+        return _ids;
+    }
+
+    /**
+     * Check that C is a component number.
+     */
+    private void checkComponent(int c) {
+        if (c <= 0 || c > _count) {
+            throw new IllegalArgumentException("no such component");
+        }
+    }
+
+    /**
+     * Set _members and _starts from _ids and _count.
+     */
+    private void group() {
+        _starts = new int[_count + 2];
+        for (int c : _ids) {
+            _starts[c + 1] += 1;
+        }
+        _starts[1] = 0;
+        for (int c = 2; c <= _count + 1; c += 1) {
+            _starts[c] += _starts[c - 1];
+        }
+        _members = new int[_starts[_count + 1]];
+        int[] next = _starts.clone();
+        for (int v = 1; v < _ids.length; v += 1) {
+            if (_ids[v] != 0) {
+                _members[next[_ids[v]]] = v;
+                next[_ids[v]] += 1;
+            }
+        }
+    }
+
+    /**
+     * Number of ints in a stack frame of strong().
+     */
+    private static final int FRAME = 3;
+    /**
+     * Initial length of the stacks used by strong().
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Component of each vertex, or 0 for non-vertices.
+     */
+    private final int[] _ids;
+    /**
+     * Number of components.
+     */
+    private int _count;
+    /**
+     * All vertices, grouped by component and increasing within each.
+     */
+    private int[] _members;
+    /**
+     * The members of component C are _members[_starts[C] ..
+     * _starts[C+1]-1].
+     */
+    private int[] _starts;
+}
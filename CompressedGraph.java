@@ -0,0 +1,605 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable graph whose adjacency lists are compressed into a single
+ * byte array.  Each vertex's neighbors are sorted, and each row is
+ * stored as its length followed by the gaps between consecutive
+ * neighbors, all as variable-length integers of 7 bits per byte.  The
+ * first gap is taken from the vertex itself, so that rows of graphs
+ * whose vertices are numbered for locality (see Reordering) consist
+ * mostly of one-byte gaps.  Rows are decoded sequentially as they are
+ * iterated, so traversals and shortest-path searches run directly on
+ * the compressed form.
+ * <p>
+ * The positions of the rows are sampled: only that of the first row in
+ * each block of 16 consecutive vertex numbers is stored, along with the
+ * number of edges whose ids precede the block's.  A row is found by
+ * skipping the rows before it in its block, so that the per-vertex
+ * index costs 6 bits per vertex for a directed graph, rather than 96.
+ * Finding a row, and so successor(v, k), predecessor(v, k) and edge
+ * lookups, takes time proportional to the total size of the rows in its
+ * block.
+ * <p>
+ * Unlike other graphs, a CompressedGraph iterates over successors and
+ * predecessors in increasing order of vertex number, rather than in the
+ * order in which edges were added.  Its edge ids are dense, numbered
+ * from 1 in the order of edges(), which lists edges by first end point
+ * and then by second (with the first end point the smaller for
+ * undirected graphs), and so generally differ from those of the graph
+ * it was compressed from.
+ */
+public final class CompressedGraph extends Graph {
+
+    /**
+     * A compressed copy of G.
+     */
+    public CompressedGraph(Graph G) {
+        _directed = G.isDirected();
+        _maxVertex = G.maxVertex();
+        _present = new BitSet(_maxVertex + 1);
+        for (IntIteration v = G.vertexInts(); v.hasNext();) {
+            _present.set(v.nextInt());
+            _vertexSize += 1;
+        }
+        int blocks = (_maxVertex >>> SAMPLE_BITS) + 1;
+        _edgeIndex = new int[blocks];
+        _outIndex = new int[blocks];
+        _inIndex = _directed ? new int[blocks] : _outIndex;
+
+        Encoder out = new Encoder(), in = _directed ? new Encoder() : out;
+        int[] row = new int[INITIAL_DEGREE];
+        for (int v = 0; v <= _maxVertex; v += 1) {
+            if ((v & SAMPLE_MASK) == 0) {
+                _outIndex[v >>> SAMPLE_BITS] = out.size();
+                _inIndex[v >>> SAMPLE_BITS] = in.size();
+                _edgeIndex[v >>> SAMPLE_BITS] = _edgeSize;
+            }
+            if (!_present.get(v)) {
+                continue;
+            }
+            int n = G.outDegree(v);
+            if (row.length < n) {
+                row = new int[Math.max(n, 2 * row.length)];
+            }
+            n = collect(G.successorInts(v), row);
+            for (int k = 0; k < n; k += 1) {
+                if (_directed || row[k] >= v) {
+                    _edgeSize += 1;
+                }
+            }
+            out.row(v, row, n);
+            if (_directed) {
+                n = G.inDegree(v);
+                if (row.length < n) {
+                    row = new int[Math.max(n, 2 * row.length)];
+                }
+                in.row(v, row, collect(G.predecessorInts(v), row));
+            }
+        }
+        _out = out.toArray();
+        _in = _directed ? in.toArray() : _out;
+    }
+
+    /**
+     * Returns the average number of bits of storage used per edge,
+     * counting the encoded rows and the per-vertex indices into them,
+     * or 0 if I have no edges.
+     */
+    public double bitsPerEdge() {
+        if (_edgeSize == 0) {
+            return 0.0;
+        }
+        long bytes = _out.length + (long) _outIndex.length * Integer.BYTES
+            + (long) _edgeIndex.length * Integer.BYTES
+            + _present.size() / Byte.SIZE;
+        if (_directed) {
+            bytes += _in.length + (long) _inIndex.length * Integer.BYTES;
+        }
+        return (double) bytes * Byte.SIZE / _edgeSize;
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexSize;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        if (!containcheck(v)) {
+            return 0;
+        }
+        return row(_out, _outIndex, v)._remaining;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!containcheck(v)) {
+            return 0;
+        }
+        return row(_in, _inIndex, v)._remaining;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return containcheck(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public void remove(int v) {
+        throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return vertexInts();
+    }
+
+    @Override
+    public IntIteration vertexInts() {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _v > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_v <= 0) {
+                    throw new NoSuchElementException();
+                }
+                int v = _v;
+                _v = _present.nextSetBit(v + 1);
+                return v;
+            }
+
+            /** The next vertex, or a negative value if there is none. */
+            private int _v = _present.nextSetBit(1);
+        };
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        return Iteration.item(successorInts(v), k);
+    }
+
+    @Override
+    public int predecessor(int v, int k) {
+        return Iteration.item(predecessorInts(v), k);
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return successorInts(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return predecessorInts(v);
+    }
+
+    @Override
+    public IntIteration successorInts(int v) {
+        if (!containcheck(v)) {
+            return Iteration.EMPTY_INTS;
+        }
+        return row(_out, _outIndex, v);
+    }
+
+    @Override
+    public IntIteration predecessorInts(int v) {
+        if (!containcheck(v)) {
+            return Iteration.EMPTY_INTS;
+        }
+        return row(_in, _inIndex, v);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                if (_ready) {
+                    return true;
+                }
+                while (_u <= _maxVertex) {
+                    while (_row.hasNext()) {
+                        int v = _row.nextInt();
+                        if (_directed || v >= _u) {
+                            _edge[0] = _u;
+                            _edge[1] = v;
+                            _ready = true;
+                            return true;
+                        }
+                    }
+                    _u += 1;
+                    _row = successorInts(_u);
+                }
+                return false;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _ready = false;
+                return _edge;
+            }
+
+            /** The current first end point. */
+            private int _u = 1;
+            /** The remaining successors of _u. */
+            private IntIteration _row = successorInts(1);
+            /** True iff _edge holds an edge not yet returned. */
+            private boolean _ready;
+            /** The array returned by every call of next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    public Graph freeze() {
+        return this;
+    }
+
+    @Override
+    int edgeIdLimit() {
+        return _edgeSize;
+    }
+
+    @Override
+    protected boolean containcheck(int v) {
+        return v > 0 && v <= _maxVertex && _present.get(v);
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!containcheck(u) || !containcheck(v)) {
+            return 0;
+        }
+        if (!_directed && u > v) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        int id = _edgeIndex[u >>> SAMPLE_BITS];
+        int pos = _outIndex[u >>> SAMPLE_BITS];
+        for (int w = u & ~SAMPLE_MASK; w < u; w += 1) {
+            if (_present.get(w)) {
+                RowIteration row = new RowIteration(_out, pos, w);
+                if (_directed) {
+                    id += row._remaining;
+                } else {
+                    while (row.hasNext()) {
+                        if (row.nextInt() >= w) {
+                            id += 1;
+                        }
+                    }
+                }
+                pos = row.end();
+            }
+        }
+        for (IntIteration row = new RowIteration(_out, pos, u);
+             row.hasNext();) {
+            int w = row.nextInt();
+            if (w > v) {
+                break;
+            } else if (_directed || w >= u) {
+                id += 1;
+                if (w == v) {
+                    return id;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns an iteration over the row of vertex V in BYTES, in which
+     * INDEX gives the position of the first row of each block.
+     */
+    private RowIteration row(byte[] bytes, int[] index, int v) {
+        int pos = index[v >>> SAMPLE_BITS];
+        for (int w = v & ~SAMPLE_MASK; w < v; w += 1) {
+            if (_present.get(w)) {
+                pos = new RowIteration(bytes, pos, w).end();
+            }
+        }
+        return new RowIteration(bytes, pos, v);
+    }
+
+    /**
+     * Store the items of ROW in increasing order in the front of RESULT,
+     * which must be long enough, and return their number.
+     */
+    private static int collect(IntIteration row, int[] result) {
+        int n = 0;
+        while (row.hasNext()) {
+            result[n] = row.nextInt();
+            n += 1;
+        }
+        Arrays.sort(result, 0, n);
+        return n;
+    }
+
+    /**
+     * A growable byte array into which rows are encoded.
+     */
+    private static class Encoder {
+        /**
+         * Returns the number of bytes written so far.
+         */
+        int size() {
+            return _size;
+        }
+
+        /**
+         * Append the row of vertex V, consisting of the N increasing
+         * vertices in ROW.
+         */
+        void row(int v, int[] row, int n) {
+            putVarint(n);
+            int prev = v;
+            for (int k = 0; k < n; k += 1) {
+                if (k == 0) {
+                    putVarint(zigzag(row[k] - v));
+                } else {
+                    putVarint(row[k] - prev - 1);
+                }
+                prev = row[k];
+            }
+        }
+
+        /**
+         * Returns a copy of the bytes written.
+         */
+        byte[] toArray() {
+            return Arrays.copyOf(_bytes, _size);
+        }
+
+        /**
+         * Append the non-negative X in 7-bit groups, least significant
+         * first, with the high bit of each byte but the last set.
+         */
+        private void putVarint(int x) {
+            if (_size + MAX_VARINT > _bytes.length) {
+                _bytes = Arrays.copyOf(_bytes, 2 * _bytes.length);
+            }
+            while ((x & ~VARINT_MASK) != 0) {
+                _bytes[_size] = (byte) ((x & VARINT_MASK) | VARINT_MORE);
+                _size += 1;
+                x >>>= VARINT_BITS;
+            }
+            _bytes[_size] = (byte) x;
+            _size += 1;
+        }
+
+        /**
+         * The bytes written, in the first _size elements.
+         */
+        private byte[] _bytes = new byte[INITIAL_CAPACITY];
+        /**
+         * Number of bytes written.
+         */
+        private int _size;
+    }
+
+    /**
+     * Returns X encoded so that values of small magnitude are small and
+     * non-negative.
+     */
+    private static int zigzag(int x) {
+        return (x << 1) ^ (x >> (Integer.SIZE - 1));
+    }
+
+    /**
+     * Returns the value encoded by zigzag as X.
+     */
+    private static int unzigzag(int x) {
+        return (x >>> 1) ^ -(x & 1);
+    }
+
+    /**
+     * An iteration over the decoded row of a vertex.
+     */
+    private static class RowIteration extends IntIteration {
+
+        /**
+         * Iterates over the row of vertex V, which begins at position POS
+         * in BYTES.
+         */
+        RowIteration(byte[] bytes, int pos, int v) {
+            _bytes = bytes;
+            _pos = pos;
+            _prev = v;
+            _remaining = getVarint();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _remaining > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (_remaining <= 0) {
+                throw new NoSuchElementException();
+            }
+            if (_first) {
+                _prev += unzigzag(getVarint());
+                _first = false;
+            } else {
+                _prev += getVarint() + 1;
+            }
+            _remaining -= 1;
+            return _prev;
+        }
+
+        /**
+         * Returns the position just after my row, skipping the vertices
+         * not yet decoded.
+         */
+        int end() {
+            for (; _remaining > 0; _remaining -= 1) {
+                while ((_bytes[_pos] & VARINT_MORE) != 0) {
+                    _pos += 1;
+                }
+                _pos += 1;
+            }
+            return _pos;
+        }
+
+        /**
+         * Decode and return the variable-length integer at _pos,
+         * advancing past it.
+         */
+        private int getVarint() {
+            int x = 0;
+            for (int shift = 0;; shift += VARINT_BITS) {
+                byte b = _bytes[_pos];
+                _pos += 1;
+                x |= (b & VARINT_MASK) << shift;
+                if ((b & VARINT_MORE) == 0) {
+                    return x;
+                }
+            }
+        }
+
+        /**
+         * The encoded rows.
+         */
+        private final byte[] _bytes;
+        /**
+         * Position of the next byte to decode.
+         */
+        private int _pos;
+        /**
+         * The last vertex decoded, or the row's own vertex at first.
+         */
+        private int _prev;
+        /**
+         * True iff the next vertex is the first in the row.
+         */
+        private boolean _first = true;
+        /**
+         * Number of vertices yet to be decoded.
+         */
+        private int _remaining;
+    }
+
+    /**
+     * Number of value bits in each byte of a variable-length integer.
+     */
+    private static final int VARINT_BITS = 7;
+    /**
+     * Mask selecting the value bits of a byte.
+     */
+    private static final int VARINT_MASK = (1 << VARINT_BITS) - 1;
+    /**
+     * Bit marking a byte that is not the last of its integer.
+     */
+    private static final int VARINT_MORE = 1 << VARINT_BITS;
+    /**
+     * Maximum number of bytes in a variable-length integer.
+     */
+    private static final int MAX_VARINT = 5;
+    /**
+     * Log2 of the number of vertex numbers in a block.
+     */
+    private static final int SAMPLE_BITS = 4;
+    /**
+     * Mask selecting a vertex number's position within its block.
+     */
+    private static final int SAMPLE_MASK = (1 << SAMPLE_BITS) - 1;
+    /**
+     * Initial length of the encoding buffer.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+    /**
+     * Initial length of the row buffer.
+     */
+    private static final int INITIAL_DEGREE = 16;
+
+    /**
+     * True iff I am directed.
+     */
+    private final boolean _directed;
+    /**
+     * My maximum vertex number.
+     */
+    private final int _maxVertex;
+    /**
+     * Number of my vertices.
+     */
+    private int _vertexSize;
+    /**
+     * Number of my edges.
+     */
+    private int _edgeSize;
+    /**
+     * The set of my vertices.
+     */
+    private final BitSet _present;
+    /**
+     * Encoded successor rows.
+     */
+    private final byte[] _out;
+    /**
+     * Position in _out of the first row of each block of vertices.
+     */
+    private final int[] _outIndex;
+    /**
+     * Encoded predecessor rows (the same as _out if undirected).
+     */
+    private final byte[] _in;
+    /**
+     * Position in _in of the first row of each block of vertices.
+     */
+    private final int[] _inIndex;
+    /**
+     * Number of edges whose ids precede those of the edges listed by
+     * edges() from the vertices of each block.
+     */
+    private final int[] _edgeIndex;
+}
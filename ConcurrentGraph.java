@@ -0,0 +1,739 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
+
+/**
+ * A Graph that may be modified by one thread at a time while any number
+ * of other threads read it.  Every modification builds a new immutable
+ * version of the graph and publishes it atomically, so readers never
+ * block and never see a partial update.  Versions share structure: the
+ * per-vertex adjacency arrays are grouped into fixed-size segments, and
+ * a modification copies only the adjacency arrays and segments it
+ * touches, so its cost is proportional to the degrees of the vertices
+ * involved plus the number of segments, not to the size of the graph.
+ * That cost is not small, however.  A segment holds 1024 entries, and
+ * adding a single edge copies whole segments: those holding the rows
+ * it changes (three for a directed edge, four for an undirected one)
+ * and the two holding its end points, some 20 kilobytes in all, or
+ * over a thousand times the size of the edge itself.  Loading a large
+ * graph one edge at a time is therefore slow; use a
+ * ConcurrentGraphBuilder or an ordinary graph instead where no reader
+ * needs to see the intermediate states.
+ * <p>
+ * Each call of a query method reads the latest version.  A sequence of
+ * queries that must agree with each other, such as a shortest-path
+ * search, should instead use snapshot(), which returns the current
+ * version itself as a read-only Graph.  ShortestPaths does so
+ * automatically.
+ * <p>
+ * Edge ids are dense and reused lowest first, as for DirectedGraph and
+ * UndirectedGraph.
+ */
+public class ConcurrentGraph extends Graph {
+
+    /**
+     * An empty graph, which is directed iff DIRECTED.
+     */
+    public ConcurrentGraph(boolean directed) {
+        _current = new Version(directed);
+    }
+
+    /**
+     * Returns the current version of me as an unmodifiable Graph that
+     * is unaffected by later modifications of me.
+     */
+    public Graph snapshot() {
+        return _current;
+    }
+
+    @Override
+    public int vertexSize() {
+        return _current.vertexSize();
+    }
+
+    @Override
+    public int maxVertex() {
+        return _current.maxVertex();
+    }
+
+    @Override
+    public int edgeSize() {
+        return _current.edgeSize();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _current.isDirected();
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return _current.outDegree(v);
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return _current.inDegree(v);
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return _current.contains(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return _current.contains(u, v);
+    }
+
+    @Override
+    public synchronized int add() {
+        int v = _liveVertices.nextClearBit(_freeVertex);
+        _liveVertices.set(v);
+        _freeVertex = v + 1;
+        Version next = new Version(_current);
+        next.setOut(v, NO_VERTICES, NO_VERTICES);
+        if (next._directed) {
+            next.setIn(v, NO_VERTICES);
+        }
+        next._vertexSize += 1;
+        next._maxVertex = Math.max(next._maxVertex, v);
+        _current = next;
+        return v;
+    }
+
+    @Override
+    public synchronized int add(int u, int v) {
+        Version cur = _current;
+        if (!cur.containcheck(u) || !cur.containcheck(v)) {
+            return 0;
+        }
+        int e = cur.edgeId(u, v);
+        if (e != 0) {
+            return e;
+        }
+        e = _liveEdges.nextClearBit(_freeEdge);
+        _liveEdges.set(e);
+        _freeEdge = e + 1;
+
+        Version next = new Version(cur);
+        next.setOut(u, append(cur.out(u), v), append(cur.ids(u), e));
+        if (next._directed) {
+            next.setIn(v, append(cur.in(v), u));
+        } else if (u != v) {
+            next.setOut(v, append(cur.out(v), u), append(cur.ids(v), e));
+        }
+        next.setEdge(e, u, v);
+        next._edgeSize += 1;
+        _current = next;
+        return e;
+    }
+
+    @Override
+    public synchronized void remove(int v) {
+        Version cur = _current;
+        if (!cur.containcheck(v)) {
+            return;
+        }
+        Version next = new Version(cur);
+        int[] out = cur.out(v), ids = cur.ids(v);
+        for (int k = 0; k < out.length; k += 1) {
+            int w = out[k];
+            if (w != v) {
+                if (next._directed) {
+                    int[] in = next.in(w);
+                    next.setIn(w, without(in, indexOf(in, v)));
+                } else {
+                    unlinkOut(next, w, v);
+                }
+            }
+            freeEdge(next, ids[k]);
+        }
+        if (next._directed) {
+            for (int u : cur.in(v)) {
+                if (u != v) {
+                    freeEdge(next, next.ids(u)[indexOf(next.out(u), v)]);
+                    unlinkOut(next, u, v);
+                }
+            }
+            next.setIn(v, null);
+        }
+        next.setOut(v, null, null);
+        _liveVertices.clear(v);
+        _freeVertex = Math.min(_freeVertex, v);
+        next._vertexSize -= 1;
+        while (next._maxVertex > 0 && !next.containcheck(next._maxVertex)) {
+            next._maxVertex -= 1;
+        }
+        _current = next;
+    }
+
+    @Override
+    public synchronized void remove(int u, int v) {
+        Version cur = _current;
+        int e = cur.edgeId(u, v);
+        if (e == 0) {
+            return;
+        }
+        Version next = new Version(cur);
+        unlinkOut(next, u, v);
+        if (next._directed) {
+            int[] in = next.in(v);
+            next.setIn(v, without(in, indexOf(in, u)));
+        } else if (u != v) {
+            unlinkOut(next, v, u);
+        }
+        freeEdge(next, e);
+        _current = next;
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return _current.vertices();
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        return _current.successor(v, k);
+    }
+
+    @Override
+    public int predecessor(int v, int k) {
+        return _current.predecessor(v, k);
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return _current.successors(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return _current.predecessors(v);
+    }
+
+    @Override
+    public IntIteration vertexInts() {
+        return _current.vertexInts();
+    }
+
+    @Override
+    public IntIteration successorInts(int v) {
+        return _current.successorInts(v);
+    }
+
+    @Override
+    public IntIteration predecessorInts(int v) {
+        return _current.predecessorInts(v);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return _current.edges();
+    }
+
+    @Override
+    public int edges(int[] us, int[] vs) {
+        return _current.edges(us, vs);
+    }
+
+    @Override
+    public Graph freeze() {
+        return _current.freeze();
+    }
+
+    @Override
+    Graph readView() {
+        return snapshot();
+    }
+
+    @Override
+    int edgeIdLimit() {
+        return _current.edgeIdLimit();
+    }
+
+    @Override
+    protected boolean containcheck(int v) {
+        return _current.containcheck(v);
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        return _current.edgeId(u, v);
+    }
+
+    /**
+     * Remove V from U's successors in NEXT.
+     */
+    private static void unlinkOut(Version next, int u, int v) {
+        int k = indexOf(next.out(u), v);
+        next.setOut(u, without(next.out(u), k), without(next.ids(u), k));
+    }
+
+    /**
+     * Release edge id E in NEXT.
+     */
+    private void freeEdge(Version next, int e) {
+        next.setEdge(e, 0, 0);
+        next._edgeSize -= 1;
+        _liveEdges.clear(e);
+        _freeEdge = Math.min(_freeEdge, e);
+    }
+
+    /**
+     * Returns a copy of ROW with X appended.
+     */
+    private static int[] append(int[] row, int x) {
+        int[] result = Arrays.copyOf(row, row.length + 1);
+        result[row.length] = x;
+        return result;
+    }
+
+    /**
+     * Returns a copy of ROW without element K.
+     */
+    private static int[] without(int[] row, int k) {
+        int[] result = Arrays.copyOf(row, row.length - 1);
+        System.arraycopy(row, k + 1, result, k, row.length - k - 1);
+        return result;
+    }
+
+    /**
+     * Returns the index of X in ROW, or -1 if absent.
+     */
+    private static int indexOf(int[] row, int x) {
+        for (int k = 0; k < row.length; k += 1) {
+            if (row[k] == x) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * One immutable version of a ConcurrentGraph.  The successors of
+     * vertex V are out(V), the ids of the corresponding edges are ids(V),
+     * and in a directed graph, the predecessors are in(V), all in the
+     * order their edges were added.  These are null iff V is not a
+     * vertex.  A version is modified only while it is being derived from
+     * its predecessor, before it is published.
+     */
+    private static final class Version extends Graph {
+
+        /**
+         * An empty version, directed iff DIRECTED.
+         */
+        Version(boolean directed) {
+            _directed = directed;
+            _out = new int[0][][];
+            _ids = new int[0][][];
+            _in = directed ? new int[0][][] : null;
+            _edgeU = new int[0][];
+            _edgeV = new int[0][];
+        }
+
+        /**
+         * A new version, initially equal to BASE, that may be modified
+         * until it is published.
+         */
+        Version(Version base) {
+            _directed = base._directed;
+            _vertexSize = base._vertexSize;
+            _maxVertex = base._maxVertex;
+            _edgeSize = base._edgeSize;
+            _edgeLimit = base._edgeLimit;
+            _out = base._out.clone();
+            _ids = base._ids.clone();
+            _in = base._directed ? base._in.clone() : null;
+            _edgeU = base._edgeU.clone();
+            _edgeV = base._edgeV.clone();
+            _owned = new BitSet();
+        }
+
+        @Override
+        public int vertexSize() {
+            return _vertexSize;
+        }
+
+        @Override
+        public int maxVertex() {
+            return _maxVertex;
+        }
+
+        @Override
+        public int edgeSize() {
+            return _edgeSize;
+        }
+
+        @Override
+        public boolean isDirected() {
+            return _directed;
+        }
+
+        @Override
+        public int outDegree(int v) {
+            int[] row = out(v);
+            return row == null ? 0 : row.length;
+        }
+
+        @Override
+        public int inDegree(int v) {
+            int[] row = in(v);
+            return row == null ? 0 : row.length;
+        }
+
+        @Override
+        public boolean contains(int u) {
+            return containcheck(u);
+        }
+
+        @Override
+        public boolean contains(int u, int v) {
+            return edgeId(u, v) != 0;
+        }
+
+        @Override
+        public int add() {
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+
+        @Override
+        public int add(int u, int v) {
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+
+        @Override
+        public void remove(int v) {
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+
+        @Override
+        public void remove(int u, int v) {
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+
+        @Override
+        public Iteration<Integer> vertices() {
+            return vertexInts();
+        }
+
+        @Override
+        public IntIteration vertexInts() {
+            return new IntIteration() {
+                @Override
+                public boolean hasNext() {
+                    while (_v <= _maxVertex && !containcheck(_v)) {
+                        _v += 1;
+                    }
+                    return _v <= _maxVertex;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    _v += 1;
+                    return _v - 1;
+                }
+
+                /** The next candidate vertex. */
+                private int _v = 1;
+            };
+        }
+
+        @Override
+        public int successor(int v, int k) {
+            int[] row = out(v);
+            return row == null || k < 0 || k >= row.length ? 0 : row[k];
+        }
+
+        @Override
+        public int predecessor(int v, int k) {
+            int[] row = in(v);
+            return row == null || k < 0 || k >= row.length ? 0 : row[k];
+        }
+
+        @Override
+        public Iteration<Integer> successors(int v) {
+            return successorInts(v);
+        }
+
+        @Override
+        public Iteration<Integer> predecessors(int v) {
+            return predecessorInts(v);
+        }
+
+        @Override
+        public IntIteration successorInts(int v) {
+            int[] row = out(v);
+            if (row == null) {
+                row = NO_VERTICES;
+            }
+            return Iteration.iteration(row, 0, row.length);
+        }
+
+        @Override
+        public IntIteration predecessorInts(int v) {
+            int[] row = in(v);
+            if (row == null) {
+                row = NO_VERTICES;
+            }
+            return Iteration.iteration(row, 0, row.length);
+        }
+
+        @Override
+        public Iteration<int[]> edges() {
+            return new Iteration<int[]>() {
+                @Override
+                public boolean hasNext() {
+                    while (_e <= _edgeLimit && edgeU(_e) == 0) {
+                        _e += 1;
+                    }
+                    return _e <= _edgeLimit;
+                }
+
+                @Override
+                public int[] next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    _edge[0] = edgeU(_e);
+                    _edge[1] = edgeV(_e);
+                    _e += 1;
+                    return _edge;
+                }
+
+                /** The next candidate edge id. */
+                private int _e = 1;
+                /** The array returned by every call of next(). */
+                private final int[] _edge = new int[2];
+            };
+        }
+
+        @Override
+        protected boolean containcheck(int v) {
+            return out(v) != null;
+        }
+
+        @Override
+        int edgeIdLimit() {
+            return _edgeLimit;
+        }
+
+        @Override
+        protected int edgeId(int u, int v) {
+            int[] row = out(u);
+            if (row == null || !containcheck(v)) {
+                return 0;
+            }
+            int k = indexOf(row, v);
+            return k == -1 ? 0 : ids(u)[k];
+        }
+
+        /**
+         * Returns the successors of V, or null if V is not a vertex.
+         */
+        int[] out(int v) {
+            return row(_out, v);
+        }
+
+        /**
+         * Returns the ids of the edges to the successors of V, or null if
+         * V is not a vertex.
+         */
+        int[] ids(int v) {
+            return row(_ids, v);
+        }
+
+        /**
+         * Returns the predecessors of V, or null if V is not a vertex.
+         */
+        int[] in(int v) {
+            return _directed ? row(_in, v) : out(v);
+        }
+
+        /**
+         * Returns the first end point of edge E, or 0 if there is none.
+         */
+        int edgeU(int e) {
+            int s = e >>> SEGMENT_BITS;
+            if (s >= _edgeU.length || _edgeU[s] == null) {
+                return 0;
+            }
+            return _edgeU[s][e & SEGMENT_MASK];
+        }
+
+        /**
+         * Returns the second end point of edge E, or 0 if there is none.
+         */
+        int edgeV(int e) {
+            int s = e >>> SEGMENT_BITS;
+            if (s >= _edgeV.length || _edgeV[s] == null) {
+                return 0;
+            }
+            return _edgeV[s][e & SEGMENT_MASK];
+        }
+
+        /**
+         * Set the successors of V to OUT and their edge ids to IDS.
+         */
+        void setOut(int v, int[] out, int[] ids) {
+            _out = setRow(_out, v, out, OUT);
+            _ids = setRow(_ids, v, ids, IDS);
+        }
+
+        /**
+         * Set the predecessors of V to IN in a directed graph.
+         */
+        void setIn(int v, int[] in) {
+            _in = setRow(_in, v, in, IN);
+        }
+
+        /**
+         * Set the end points of edge E to (U, V), where (0, 0) indicates
+         * that there is no such edge.
+         */
+        void setEdge(int e, int u, int v) {
+            int s = e >>> SEGMENT_BITS;
+            if (s >= _edgeU.length) {
+                int n = Math.max(s + 1, 2 * _edgeU.length);
+                _edgeU = Arrays.copyOf(_edgeU, n);
+                _edgeV = Arrays.copyOf(_edgeV, n);
+            }
+            if (!_owned.get(EDGES + FAMILIES * s)) {
+                _owned.set(EDGES + FAMILIES * s);
+                _edgeU[s] = _edgeU[s] == null
+                    ? new int[SEGMENT_SIZE] : _edgeU[s].clone();
+                _edgeV[s] = _edgeV[s] == null
+                    ? new int[SEGMENT_SIZE] : _edgeV[s].clone();
+            }
+            _edgeU[s][e & SEGMENT_MASK] = u;
+            _edgeV[s][e & SEGMENT_MASK] = v;
+            _edgeLimit = Math.max(_edgeLimit, e);
+        }
+
+        /**
+         * Returns the row for V in SEGMENTS, or null if there is none.
+         */
+        private static int[] row(int[][][] segments, int v) {
+            int s = v >>> SEGMENT_BITS;
+            if (v <= 0 || s >= segments.length || segments[s] == null) {
+                return null;
+            }
+            return segments[s][v & SEGMENT_MASK];
+        }
+
+        /**
+         * Set the row for V in SEGMENTS, which belongs to family FAMILY,
+         * to ROW, copying the affected segment if it is still shared with
+         * an earlier version.  Returns SEGMENTS, or a longer copy of it.
+         */
+        private int[][][] setRow(int[][][] segments, int v, int[] row,
+                                 int family) {
+            int s = v >>> SEGMENT_BITS;
+            if (s >= segments.length) {
+                segments =
+                    Arrays.copyOf(segments, Math.max(s + 1,
+                                                     2 * segments.length));
+            }
+            if (!_owned.get(family + FAMILIES * s)) {
+                _owned.set(family + FAMILIES * s);
+                segments[s] = segments[s] == null
+                    ? new int[SEGMENT_SIZE][] : segments[s].clone();
+            }
+            segments[s][v & SEGMENT_MASK] = row;
+            return segments;
+        }
+
+        /**
+         * True iff I am directed.
+         */
+        private final boolean _directed;
+        /**
+         * Number of my vertices.
+         */
+        private int _vertexSize;
+        /**
+         * My maximum vertex number.
+         */
+        private int _maxVertex;
+        /**
+         * Number of my edges.
+         */
+        private int _edgeSize;
+        /**
+         * Largest edge id ever used.
+         */
+        private int _edgeLimit;
+        /**
+         * Segments of successor rows.
+         */
+        private int[][][] _out;
+        /**
+         * Segments of edge-id rows, parallel to _out.
+         */
+        private int[][][] _ids;
+        /**
+         * Segments of predecessor rows, or null if undirected.
+         */
+        private int[][][] _in;
+        /**
+         * Segments of edge end points, indexed by edge id.
+         */
+        private int[][] _edgeU, _edgeV;
+        /**
+         * While I am being derived, records the segments I have already
+         * copied: bit FAMILY + FAMILIES * S is set for segment S of the
+         * given family.  Null for the initial version.
+         */
+        private BitSet _owned;
+    }
+
+    /**
+     * Log2 of the number of entries per segment.
+     */
+    private static final int SEGMENT_BITS = 10;
+    /**
+     * Number of entries per segment.
+     */
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    /**
+     * Mask selecting an index within a segment.
+     */
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    /**
+     * Segment families, for tracking which segments have been copied.
+     */
+    private static final int OUT = 0, IDS = 1, IN = 2, EDGES = 3,
+        FAMILIES = 4;
+    /**
+     * An empty adjacency row.
+     */
+    private static final int[] NO_VERTICES = new int[0];
+
+    /**
+     * The latest published version.
+     */
+    private volatile Version _current;
+    /**
+     * The set of current vertex numbers.  Used only by the writer.
+     */
+    private final BitSet _liveVertices = new BitSet();
+    /**
+     * A lower bound on the smallest unused vertex number.
+     */
+    private int _freeVertex = 1;
+    /**
+     * The set of edge ids in use.  Used only by the writer.
+     */
+    private final BitSet _liveEdges = new BitSet();
+    /**
+     * A lower bound on the smallest unused edge id.
+     */
+    private int _freeEdge = 1;
+}
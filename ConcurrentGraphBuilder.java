@@ -0,0 +1,191 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accumulates the vertices and edges of a graph from many threads at
+ * once, and then packs them into a DirectedGraph or UndirectedGraph.
+ * Vertex numbers come from an atomic counter.  Each vertex's outgoing
+ * edges are appended to its own growable array under one of a fixed set
+ * of striped locks, so threads adding edges from different vertices
+ * rarely contend.  Duplicate edges are accepted while loading and
+ * dropped by build().
+ * <p>
+ * build() must not run concurrently with add; all adding threads should
+ * have finished (for example, been joined) first.  Edges are numbered in
+ * the order of their source vertices, and then in the order in which
+ * they were added from that vertex.
+ */
+public class ConcurrentGraphBuilder {
+
+    /**
+     * A builder for a directed graph if DIRECTED, and otherwise an
+     * undirected one.
+     */
+    public ConcurrentGraphBuilder(boolean directed) {
+        _directed = directed;
+        _segments = new Segment[1];
+        for (int i = 0; i < STRIPES; i += 1) {
+            _stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns a new vertex number, one greater than the last one handed
+     * out.  May be called from any thread.
+     */
+    public int add() {
+        int v = _vertices.incrementAndGet();
+        segment(v);
+        return v;
+    }
+
+    /**
+     * Add an edge from U to V, both of which must have been returned by
+     * add().  May be called from any thread.
+     */
+    public void add(int u, int v) {
+        int n = _vertices.get();
+        if (u <= 0 || v <= 0 || u > n || v > n) {
+            throw new IllegalArgumentException("vertex not from builder");
+        }
+        Segment seg = segment(u);
+        int i = u & SEGMENT_MASK;
+        synchronized (_stripes[u & STRIPE_MASK]) {
+            int[] row = seg._rows[i];
+            int size = seg._sizes[i];
+            if (row == null) {
+                row = seg._rows[i] = new int[INITIAL_DEGREE];
+            } else if (size == row.length) {
+                row = seg._rows[i] = Arrays.copyOf(row, 2 * size);
+            }
+            row[size] = v;
+            seg._sizes[i] = size + 1;
+        }
+    }
+
+    /**
+     * Returns the number of vertices handed out so far.
+     */
+    public int vertexSize() {
+        return _vertices.get();
+    }
+
+    /**
+     * Returns a new DirectedGraph or UndirectedGraph whose vertices are
+     * 1 .. vertexSize() and whose edges are those added to me, without
+     * duplicates.
+     */
+    public Graph build() {
+        int n = _vertices.get();
+        int m = 0;
+        for (int u = 1; u <= n; u += 1) {
+            Segment seg = segment(u);
+            synchronized (_stripes[u & STRIPE_MASK]) {
+                m += seg._sizes[u & SEGMENT_MASK];
+            }
+        }
+        int[] us = new int[m], vs = new int[m];
+        int k = 0;
+        for (int u = 1; u <= n; u += 1) {
+            Segment seg = segment(u);
+            int i = u & SEGMENT_MASK;
+            synchronized (_stripes[u & STRIPE_MASK]) {
+                int size = seg._sizes[i];
+                Arrays.fill(us, k, k + size, u);
+                if (size > 0) {
+                    System.arraycopy(seg._rows[i], 0, vs, k, size);
+                }
+                k += size;
+            }
+        }
+        return new GraphBuilder(_directed).vertices(n)
+            .add(us, vs).build();
+    }
+
+    /**
+     * Returns the segment holding vertex V, creating it and enlarging the
+     * segment directory as necessary.
+     */
+    private Segment segment(int v) {
+        Segment[] segments = _segments;
+        int s = v >>> SEGMENT_BITS;
+        if (s < segments.length && segments[s] != null) {
+            return segments[s];
+        }
+        synchronized (this) {
+            segments = _segments;
+            if (s >= segments.length) {
+                segments = Arrays.copyOf(segments,
+                                         Math.max(s + 1, 2 * segments.length));
+            }
+            if (segments[s] == null) {
+                segments[s] = new Segment();
+            }
+            _segments = segments;
+            return segments[s];
+        }
+    }
+
+    /**
+     * The outgoing edges of a block of SEGMENT_SIZE consecutive vertices.
+     */
+    private static class Segment {
+        /**
+         * Targets of the edges from each vertex, in the first _sizes[i]
+         * elements of _rows[i].
+         */
+        private final int[][] _rows = new int[SEGMENT_SIZE][];
+        /**
+         * Number of edges from each vertex.
+         */
+        private final int[] _sizes = new int[SEGMENT_SIZE];
+    }
+
+    /**
+     * Log2 of the number of vertices per segment.
+     */
+    private static final int SEGMENT_BITS = 12;
+    /**
+     * Number of vertices per segment.
+     */
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    /**
+     * Mask selecting a vertex's index within its segment.
+     */
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    /**
+     * Number of locks guarding the rows (a power of 2).
+     */
+    private static final int STRIPES = 64;
+    /**
+     * Mask selecting a vertex's lock.
+     */
+    private static final int STRIPE_MASK = STRIPES - 1;
+    /**
+     * Initial length of a vertex's row.
+     */
+    private static final int INITIAL_DEGREE = 4;
+
+    /**
+     * True iff building a directed graph.
+     */
+    private final boolean _directed;
+    /**
+     * The last vertex number handed out.
+     */
+    private final AtomicInteger _vertices = new AtomicInteger();
+    /**
+     * Directory of segments.  Replaced, never modified in place, once
+     * published, except to fill null entries under my lock.
+     */
+    private volatile Segment[] _segments;
+    /**
+     * Locks guarding the rows: the row of vertex V is guarded by
+     * _stripes[V & STRIPE_MASK].
+     */
+    private final Object[] _stripes = new Object[STRIPES];
+}
@@ -1,15 +1,20 @@
 package graph;
 
-import java.util.LinkedList;
-
-import static java.util.Collections.asLifoQueue;
-
 /* See restrictions in Graph.java. */
 
+import java.util.Arrays;
+
 /**
  * Implements a depth-first traversal of a graph.  Generally, the
  * client will extend this class, overriding the visit and
  * postVisit methods, as desired (by default, they do nothing).
+ * <p>
+ * Rather than pushing vertices back on the fringe, as Traversal does,
+ * the traversal keeps an explicit stack with one frame for each vertex
+ * on the current path: the vertex and the position of its next
+ * unexplored successor.  Each vertex is thus pre-visited and post-visited
+ * exactly once, in true depth-first order, in time O(V + E), and paths
+ * of any length need no Java stack.
  *
  * @author Shrey Malhotra
  */
@@ -19,7 +24,118 @@ public class DepthFirstTraversal extends Traversal {
      * A depth-first Traversal of G.
      */
     protected DepthFirstTraversal(Graph G) {
-        super(G, asLifoQueue(new LinkedList<Integer>()));
+        this(G, IntQueue.lifo());
+    }
+
+    /**
+     * A depth-first Traversal of G that takes its starting vertices from
+     * ROOTS.
+     */
+    private DepthFirstTraversal(Graph G, IntQueue roots) {
+        super(G, roots);
+        _G = G;
+        _roots = roots;
+    }
+
+    /**
+     * As for Traversal.clear(), also abandoning the path being explored
+     * when a traversal was interrupted.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        _depth = _top = 0;
+    }
+
+    /**
+     * Continue the traversal through the next visit, first finishing the
+     * path left by an interrupted traversal, if any, and then starting
+     * from each unmarked vertex on the fringe in turn.  A successor W of V is
+     * explored iff processSuccessor(V, W) and W is still unmarked when
+     * V's frame reaches it.  Successors are explored in the order the
+     * graph lists them if reverseSuccessors(V), and otherwise in the
+     * opposite order, as Traversal would schedule them on a
+     * last-in-first-out fringe.  Returns the vertex visited, or 0 if
+     * there is none because the traversal is complete or visit or
+     * postVisit has terminated it.
+     */
+    @Override
+    protected int advance() {
+        while (_depth > 0) {
+            int f = FRAME * (_depth - 1);
+            int v = _frames[f];
+            int next = _frames[f + 2];
+            if (next < _top) {
+                int w = _successors[next];
+                _frames[f + 2] = next + 1;
+                if (processSuccessor(v, w) && !marked(w)) {
+                    return enter(w) ? w : 0;
+                }
+            } else {
+                _depth -= 1;
+                _top = _frames[f + 1];
+                if (shouldPostVisit(v) && !postVisit(v)) {
+                    stopped();
+                    return 0;
+                }
+            }
+        }
+        while (!_roots.isEmpty()) {
+            int v0 = _roots.removeInt();
+            if (!marked(v0)) {
+                return enter(v0) ? v0 : 0;
+            }
+        }
+        return exhausted();
+    }
+
+    /**
+     * Mark V, push its frame and visit it.  Returns false iff the
+     * traversal is to terminate; if a limit ends it, the stack is
+     * emptied along with the fringe.  Since V's frame is pushed first, a
+     * traversal stopped by visit(V) explores V's successors and
+     * post-visits V when resumed.  V's successors are not explored if V,
+     * at the depth of the stack, is at the maximum depth.
+     */
+    private boolean enter(int v) {
+        if (!mayVisit()) {
+            _depth = _top = 0;
+            return false;
+        }
+        mark(v);
+        int start = _top;
+        IntIteration next = _G.successorInts(v);
+        if (_depth >= maxDepth()) {
+            cutOff(next);
+        } else {
+            while (next.hasNext()) {
+                if (_top == _successors.length) {
+                    _successors = Arrays.copyOf(_successors, 2 * _top);
+                }
+                _successors[_top] = next.nextInt();
+                _top += 1;
+            }
+            if (!reverseSuccessors(v)) {
+                for (int i = start, j = _top - 1; i < j; i += 1, j -= 1) {
+                    int t = _successors[i];
+                    _successors[i] = _successors[j];
+                    _successors[j] = t;
+                }
+            }
+        }
+        if (FRAME * (_depth + 1) > _frames.length) {
+            _frames = Arrays.copyOf(_frames, 2 * _frames.length);
+        }
+        int f = FRAME * _depth;
+        _frames[f] = v;
+        _frames[f + 1] = start;
+        _frames[f + 2] = start;
+        _depth += 1;
+        if (!visit(v)) {
+            stopped();
+            return false;
+        }
+        return true;
     }
 
     @Override
@@ -41,4 +157,38 @@ public class DepthFirstTraversal extends Traversal {
     protected boolean reverseSuccessors(int v) {
         return true;
     }
+
+    /**
+     * Number of ints in a stack frame.
+     */
+    private static final int FRAME = 3;
+
+    /**
+     * The graph being traversed.
+     */
+    private final Graph _G;
+    /**
+     * The fringe, from which each traversal takes its starting vertices.
+     */
+    private final IntQueue _roots;
+    /**
+     * The stack: frame K occupies _frames[FRAME * K .. FRAME * K + 2],
+     * holding a vertex, the position in _successors of the start of its
+     * successors, and the position of the next one to explore.
+     */
+    private int[] _frames = new int[FRAME * 16];
+    /**
+     * Number of frames on the stack.
+     */
+    private int _depth;
+    /**
+     * The successors of the vertices on the stack, in the order they
+     * are to be explored, in the first _top entries.  The successors of
+     * the top vertex run from the start recorded in its frame to _top.
+     */
+    private int[] _successors = new int[16];
+    /**
+     * End of the used part of _successors.
+     */
+    private int _top;
 }
@@ -0,0 +1,220 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A column of doubles indexed by non-negative ints, used to attach
+ * numeric attributes such as coordinates or edge lengths to the vertices
+ * (indexed by vertex number) or edges (indexed by edge id) of a
+ * LabeledGraph without boxing.  Entries that have never been set are 0.
+ * A column is either held in a growable array on the heap (create()) or
+ * mapped read-only from a file written by write() (open()).
+ */
+public abstract class DoubleColumn {
+
+    /**
+     * Returns a new, empty, modifiable column held on the heap.
+     */
+    public static DoubleColumn create() {
+        return new ArrayColumn();
+    }
+
+    /**
+     * Returns the column stored in FILE by write(), mapped read-only.
+     */
+    public static DoubleColumn open(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, READ)) {
+            return new MappedColumn(in);
+        }
+    }
+
+    /**
+     * Returns entry K, which is 0 if it has never been set.
+     */
+    public abstract double get(int k);
+
+    /**
+     * Set entry K to X.  Throws UnsupportedOperationException if I am
+     * read-only.
+     */
+    public abstract void set(int k, double x);
+
+    /**
+     * Returns one more than the largest index whose entry is stored.
+     */
+    public abstract int size();
+
+    /**
+     * Write my entries 0 .. size() - 1 to FILE, replacing any previous
+     * contents, in the form read by open().
+     */
+    public void write(Path file) throws IOException {
+        try (FileChannel out = FileChannel.open(file, CREATE, WRITE,
+                                                TRUNCATE_EXISTING)) {
+            ByteBuffer buf =
+                ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION).putInt(size()).putInt(0);
+            for (int k = 0; k < size(); k += 1) {
+                if (buf.remaining() < Double.BYTES) {
+                    flush(out, buf);
+                }
+                buf.putDouble(get(k));
+            }
+            flush(out, buf);
+        }
+    }
+
+    /**
+     * Write the contents of BUF to OUT and clear it.
+     */
+    private static void flush(FileChannel out, ByteBuffer buf)
+        throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+        buf.clear();
+    }
+
+    /**
+     * A column held in an array.
+     */
+    private static class ArrayColumn extends DoubleColumn {
+        @Override
+        public double get(int k) {
+            return k >= 0 && k < _size ? _values[k] : 0.0;
+        }
+
+        @Override
+        public void set(int k, double x) {
+            if (k < 0) {
+                throw new IllegalArgumentException("negative index");
+            }
+            if (k >= _values.length) {
+                _values = Arrays.copyOf(_values,
+                                        Math.max(k + 1, 2 * _values.length));
+            }
+            _values[k] = x;
+            _size = Math.max(_size, k + 1);
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+
+        /**
+         * My entries, in the first _size elements.
+         */
+        private double[] _values = new double[INITIAL_CAPACITY];
+        /**
+         * Number of entries stored.
+         */
+        private int _size;
+    }
+
+    /**
+     * A read-only column mapped from a file in chunks of CHUNK_SIZE
+     * entries.
+     */
+    private static class MappedColumn extends DoubleColumn {
+        /**
+         * The column in IN, which is positioned at its start.
+         */
+        MappedColumn(FileChannel in) throws IOException {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && in.read(header) >= 0) {
+                continue;
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES
+                || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("not a column file");
+            }
+            _size = header.getInt();
+            if ((long) HEADER_BYTES + (long) _size * Double.BYTES
+                > in.size()) {
+                throw new IOException("truncated column file");
+            }
+            _chunks = new DoubleBuffer[(_size + CHUNK_SIZE - 1) / CHUNK_SIZE];
+            for (int c = 0; c < _chunks.length; c += 1) {
+                int n = Math.min(CHUNK_SIZE, _size - c * CHUNK_SIZE);
+                long start = HEADER_BYTES + (long) c * CHUNK_SIZE
+                    * Double.BYTES;
+                _chunks[c] = in.map(READ_ONLY, start, (long) n * Double.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+        }
+
+        @Override
+        public double get(int k) {
+            if (k < 0 || k >= _size) {
+                return 0.0;
+            }
+            return _chunks[k >>> CHUNK_BITS].get(k & (CHUNK_SIZE - 1));
+        }
+
+        @Override
+        public void set(int k, double x) {
+            throw new UnsupportedOperationException("column is read-only");
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+
+        /**
+         * Number of entries.
+         */
+        private final int _size;
+        /**
+         * The mapped entries, CHUNK_SIZE to a chunk.
+         */
+        private final DoubleBuffer[] _chunks;
+    }
+
+    /**
+     * First int of every column file.
+     */
+    private static final int MAGIC = 0x434f4c44;
+    /**
+     * Version of the file layout.
+     */
+    private static final int VERSION = 1;
+    /**
+     * Size in bytes of the file header.
+     */
+    private static final int HEADER_BYTES = 16;
+    /**
+     * Log2 of the number of entries in each mapped chunk.
+     */
+    private static final int CHUNK_BITS = 27;
+    /**
+     * Number of entries in each mapped chunk.
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    /**
+     * Size in bytes of the buffer used when writing.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * Initial length of a heap column's array.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+}
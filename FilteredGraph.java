@@ -0,0 +1,337 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A read-only view of the part of a labeled graph whose vertex and edge
+ * labels satisfy given predicates.  Nothing is copied: each query
+ * consults the underlying graph and tests labels as it goes, so any
+ * number of views, each for a different purpose, may share one graph,
+ * and changes to the underlying graph are reflected immediately.
+ * A vertex is visible iff its label satisfies the vertex predicate, and
+ * an edge iff its label satisfies the edge predicate and both its end
+ * points are visible.  Vertex numbers, edge ids, labels and iteration
+ * orders are those of the underlying graph, whose columns a view shares.
+ * <p>
+ * Queries about single vertices and edges cost what they cost on the
+ * underlying graph plus the label tests.  vertexSize(), maxVertex() and
+ * edgeSize() must examine the whole graph.
+ */
+public class FilteredGraph<VL, EL> extends LabeledGraph<VL, EL> {
+
+    /**
+     * A view of those vertices of G whose labels satisfy VERTEXTEST, and
+     * of those edges of G between them whose labels satisfy EDGETEST.
+     * Null labels are passed to the predicates like any other.
+     */
+    public FilteredGraph(LabeledGraph<VL, EL> G,
+                         Predicate<? super VL> vertexTest,
+                         Predicate<? super EL> edgeTest) {
+        super(G);
+        _base = G;
+        _vertexTest = vertexTest;
+        _edgeTest = edgeTest;
+    }
+
+    @Override
+    public int vertexSize() {
+        int n = 0;
+        for (IntIteration v = vertexInts(); v.hasNext(); v.nextInt()) {
+            n += 1;
+        }
+        return n;
+    }
+
+    @Override
+    public int maxVertex() {
+        int v;
+        for (v = _base.maxVertex(); v > 0 && !containcheck(v); v -= 1) {
+            continue;
+        }
+        return v;
+    }
+
+    @Override
+    public int edgeSize() {
+        int n = 0;
+        for (Iteration<int[]> e = edges(); e.hasNext(); e.next()) {
+            n += 1;
+        }
+        return n;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return Iteration.count(successorInts(v));
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return Iteration.count(predecessorInts(v));
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return containcheck(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return containcheck(u) && containcheck(v) && _base.contains(u, v)
+            && _edgeTest.test(_base.getLabel(u, v));
+    }
+
+    @Override
+    public int add() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    GraphObj loadTarget() {
+        return null;
+    }
+
+    @Override
+    public void remove(int v) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public VL getLabel(int v) {
+        checkMyVertex(v);
+        return _base.getLabel(v);
+    }
+
+    @Override
+    public EL getLabel(int u, int v) {
+        if (!contains(u, v)) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        return _base.getLabel(u, v);
+    }
+
+    @Override
+    public void setLabel(int v, VL lab) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setLabel(int u, int v, EL lab) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public DoubleColumn vertexColumn(String name) {
+        return _base.vertexColumn(name);
+    }
+
+    @Override
+    public DoubleColumn edgeColumn(String name) {
+        return _base.edgeColumn(name);
+    }
+
+    @Override
+    public void setVertexColumn(String name, DoubleColumn column) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public void setEdgeColumn(String name, DoubleColumn column) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    Set<String> vertexColumnNames() {
+        return _base.vertexColumnNames();
+    }
+
+    @Override
+    Set<String> edgeColumnNames() {
+        return _base.edgeColumnNames();
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return vertexInts();
+    }
+
+    @Override
+    public IntIteration vertexInts() {
+        return filter(_base.vertexInts(), this::containcheck);
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        return Iteration.item(successorInts(v), k);
+    }
+
+    @Override
+    public int predecessor(int v, int k) {
+        return Iteration.item(predecessorInts(v), k);
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return successorInts(v);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return predecessorInts(v);
+    }
+
+    @Override
+    public IntIteration successorInts(int v) {
+        if (!containcheck(v)) {
+            return Iteration.EMPTY_INTS;
+        }
+        return filter(_base.successorInts(v),
+                      w -> containcheck(w)
+                           && _edgeTest.test(_base.getLabel(v, w)));
+    }
+
+    @Override
+    public IntIteration predecessorInts(int v) {
+        if (!containcheck(v)) {
+            return Iteration.EMPTY_INTS;
+        }
+        return filter(_base.predecessorInts(v),
+                      u -> containcheck(u)
+                           && _edgeTest.test(_base.getLabel(u, v)));
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        Iteration<int[]> base = _base.edges();
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                while (_next == null && base.hasNext()) {
+                    int[] e = base.next();
+                    if (contains(e[0], e[1])) {
+                        _next = e;
+                    }
+                }
+                return _next != null;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int[] result = _next;
+                _next = null;
+                return result;
+            }
+
+            /** The next edge to return, or null if not yet found. */
+            private int[] _next;
+        };
+    }
+
+    @Override
+    public int edges(int[] us, int[] vs) {
+        int n = 0;
+        for (int[] e : edges()) {
+            us[n] = e[0];
+            vs[n] = e[1];
+            n += 1;
+        }
+        return n;
+    }
+
+    @Override
+    protected boolean containcheck(int v) {
+        return _base.contains(v) && _vertexTest.test(_base.getLabel(v));
+    }
+
+    @Override
+    protected void checkMyVertex(int v) {
+        if (!containcheck(v)) {
+            throw new IllegalArgumentException("vertex not from Graph");
+        }
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        return contains(u, v) ? _base.edgeId(u, v) : 0;
+    }
+
+    /**
+     * Returns the same view of the read view of my underlying graph, or
+     * me if that is the underlying graph itself.
+     */
+    @Override
+    LabeledGraph<VL, EL> readView() {
+        LabeledGraph<VL, EL> view = _base.readView();
+        if (view == _base) {
+            return this;
+        }
+        return new FilteredGraph<>(view, _vertexTest, _edgeTest);
+    }
+
+    /**
+     * Returns an iteration over the items of ITEMS that satisfy TEST.
+     */
+    private static IntIteration filter(IntIteration items,
+                                       IntPredicate test) {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                while (!_ready && items.hasNext()) {
+                    _next = items.nextInt();
+                    _ready = test.test(_next);
+                }
+                return _ready;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _ready = false;
+                return _next;
+            }
+
+            /** True iff _next holds an item not yet returned. */
+            private boolean _ready;
+            /** The next item to return, if _ready. */
+            private int _next;
+        };
+    }
+
+    /**
+     * Message for attempts to modify a view.
+     */
+    private static final String READ_ONLY = "filtered view is read-only";
+
+    /**
+     * The underlying graph.
+     */
+    private final LabeledGraph<VL, EL> _base;
+    /**
+     * Test applied to vertex labels.
+     */
+    private final Predicate<? super VL> _vertexTest;
+    /**
+     * Test applied to edge labels.
+     */
+    private final Predicate<? super EL> _edgeTest;
+}
@@ -0,0 +1,217 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/**
+ * An immutable snapshot of a Graph in compressed-sparse-row form, held
+ * in int arrays on the heap.  Edge ids are those of the original graph,
+ * so that columns indexed by them remain valid, and edges() lists the
+ * edges in the original order.  When the original ids are exactly 1 ..
+ * edgeSize() in that order, as they are for a graph from which no edge
+ * has been removed, no separate order array is kept.
+ * <p>
+ * Freezing makes one pass over the vertices and edges of the original,
+ * looking up the id of each edge as its row is filled, so it takes
+ * time O(V + E) when the original's edgeId does, whatever the degrees.
+ */
+class FrozenGraph extends PackedGraph {
+
+    /**
+     * A frozen copy of G.
+     */
+    FrozenGraph(Graph G) {
+        _directed = G.isDirected();
+        _maxVertex = G.maxVertex();
+        _present = new boolean[_maxVertex + 1];
+        _outStart = new int[_maxVertex + 2];
+        for (int v : G.vertices()) {
+            _present[v] = true;
+            _vertexSize += 1;
+            _outStart[v + 1] = G.outDegree(v);
+        }
+        for (int v = 1; v <= _maxVertex + 1; v += 1) {
+            _outStart[v] += _outStart[v - 1];
+        }
+        _outTargets = new int[_outStart[_maxVertex + 1]];
+        _outIds = new int[_outTargets.length];
+        for (int v = 1; v <= _maxVertex; v += 1) {
+            int k = _outStart[v];
+            if (_present[v]) {
+                for (IntIteration next = G.successorInts(v);
+                     next.hasNext(); ) {
+                    int w = next.nextInt();
+                    _outTargets[k] = w;
+                    _outIds[k] = G.edgeId(v, w);
+                    k += 1;
+                }
+            }
+        }
+
+        _edgeSize = G.edgeSize();
+        int[] us = new int[_edgeSize], vs = new int[_edgeSize];
+        int[] order = new int[_edgeSize + 1];
+        G.edges(us, vs);
+        int limit = 0;
+        boolean dense = true;
+        for (int k = 1; k <= _edgeSize; k += 1) {
+            order[k] = G.edgeId(us[k - 1], vs[k - 1]);
+            limit = Math.max(limit, order[k]);
+            dense &= order[k] == k;
+        }
+        _order = dense ? null : order;
+        _edgeU = new int[limit + 1];
+        _edgeV = new int[limit + 1];
+        for (int k = 1; k <= _edgeSize; k += 1) {
+            int e = order[k], u = us[k - 1], v = vs[k - 1];
+            _edgeU[e] = u;
+            _edgeV[e] = v;
+        }
+
+        if (_directed) {
+            _inStart = new int[_maxVertex + 2];
+            for (int v = 1; v <= _maxVertex; v += 1) {
+                _inStart[v + 1] = _inStart[v];
+                if (_present[v]) {
+                    _inStart[v + 1] += G.inDegree(v);
+                }
+            }
+            _inSources = new int[_edgeSize];
+            for (int v = 1; v <= _maxVertex; v += 1) {
+                int k = _inStart[v];
+                if (_present[v]) {
+                    for (int u : G.predecessors(v)) {
+                        _inSources[k] = u;
+                        k += 1;
+                    }
+                }
+            }
+        } else {
+            _inStart = _outStart;
+            _inSources = _outTargets;
+        }
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexSize;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    boolean present(int v) {
+        return _present[v];
+    }
+
+    @Override
+    int outStart(int v) {
+        return _outStart[v];
+    }
+
+    @Override
+    int outTarget(int k) {
+        return _outTargets[k];
+    }
+
+    @Override
+    int outId(int k) {
+        return _outIds[k];
+    }
+
+    @Override
+    int inStart(int v) {
+        return _inStart[v];
+    }
+
+    @Override
+    int inSource(int k) {
+        return _inSources[k];
+    }
+
+    @Override
+    int edgeAt(int k) {
+        return _order == null ? k : _order[k];
+    }
+
+    @Override
+    int edgeIdLimit() {
+        return _edgeU.length - 1;
+    }
+
+    @Override
+    int edgeU(int e) {
+        return _edgeU[e];
+    }
+
+    @Override
+    int edgeV(int e) {
+        return _edgeV[e];
+    }
+
+    /**
+     * True iff I am directed.
+     */
+    private final boolean _directed;
+    /**
+     * My maximum vertex number.
+     */
+    private final int _maxVertex;
+    /**
+     * Number of my vertices.
+     */
+    private int _vertexSize;
+    /**
+     * Number of my edges.
+     */
+    private final int _edgeSize;
+    /**
+     * _present[V] is true iff V is one of my vertices.
+     */
+    private final boolean[] _present;
+    /**
+     * Start of each vertex's row in _outTargets and _outIds.
+     */
+    private final int[] _outStart;
+    /**
+     * Successors of all vertices, row by row.
+     */
+    private final int[] _outTargets;
+    /**
+     * Edge id of the corresponding entry of _outTargets.
+     */
+    private final int[] _outIds;
+    /**
+     * Start of each vertex's row in _inSources.
+     */
+    private final int[] _inStart;
+    /**
+     * Predecessors of all vertices, row by row.
+     */
+    private final int[] _inSources;
+    /**
+     * _order[K] is the id of the K-th edge in edges() order, or _order is
+     * null if that id is always K.
+     */
+    private final int[] _order;
+    /**
+     * Source vertex of each edge, indexed by edge id.
+     */
+    private final int[] _edgeU;
+    /**
+     * Target vertex of each edge, indexed by edge id.
+     */
+    private final int[] _edgeV;
+}
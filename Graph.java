@@ -141,6 +141,30 @@ public abstract class Graph {
      */
     public abstract Iteration<Integer> predecessors(int v);
 
+    /**
+     * Returns an iteration over the same vertices as vertices(), in the
+     * same order, whose nextInt() method returns them without boxing.
+     */
+    public IntIteration vertexInts() {
+        return IntIteration.of(vertices());
+    }
+
+    /**
+     * Returns an iteration over the same vertices as successors(V), in
+     * the same order, whose nextInt() method returns them without boxing.
+     */
+    public IntIteration successorInts(int v) {
+        return IntIteration.of(successors(v));
+    }
+
+    /**
+     * Returns an iteration over the same vertices as predecessors(V), in
+     * the same order, whose nextInt() method returns them without boxing.
+     */
+    public IntIteration predecessorInts(int v) {
+        return IntIteration.of(predecessors(v));
+    }
+
     /**
      * Returns successors(V).  This is a synonym typically used on
      * undirected graphs.
@@ -158,6 +182,32 @@ public abstract class Graph {
      */
     public abstract Iteration<int[]> edges();
 
+    /**
+     * Store the edges of me in US and VS, in the order of edges(), so
+     * that edge K is (US[K], VS[K]), and return their number.  US and VS
+     * must have at least edgeSize() elements.
+     */
+    public int edges(int[] us, int[] vs) {
+        int n;
+        n = 0;
+        for (int[] e : edges()) {
+            us[n] = e[0];
+            vs[n] = e[1];
+            n += 1;
+        }
+        return n;
+    }
+
+    /**
+     * Returns an immutable copy of me whose vertices, edges, edge ids
+     * and iteration orders are the same as mine, but which is stored
+     * in compact arrays suited to repeated read-only queries.  Any
+     * attempt to modify the result throws UnsupportedOperationException.
+     */
+    public Graph freeze() {
+        return new FrozenGraph(this);
+    }
+
     /* Non-public methods for internal use. */
 
     /**
@@ -169,6 +219,36 @@ public abstract class Graph {
         }
     }
 
+    /**
+     * Returns a Graph whose contents will not change while it is being
+     * searched, for use by algorithms that make many queries and need
+     * them to be mutually consistent.  By default, returns me.
+     */
+    Graph readView() {
+        return this;
+    }
+
+    /**
+     * Returns the graph of this package to which add(u, v) on me adds
+     * edges, so that a batch of them may be loaded into it directly, or
+     * null if there is none.  By default, returns null.
+     */
+    GraphObj loadTarget() {
+        return null;
+    }
+
+    /**
+     * Returns an upper bound on my edge ids.  By default, finds the
+     * largest by examining every edge.
+     */
+    int edgeIdLimit() {
+        int limit = 0;
+        for (int[] e : edges()) {
+            limit = Math.max(limit, edgeId(e[0], e[1]));
+        }
+        return limit;
+    }
+
     /**
      * Return true iff V is one of my vertices.
      */
@@ -0,0 +1,216 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+/**
+ * Accumulates vertices and edges and then creates a graph from all of
+ * them at once.  Edges are bucketed by source vertex in one stable
+ * counting-sort pass and duplicates are dropped, so building a graph of
+ * E edges on V vertices takes O(V + E) time, rather than the cost of E
+ * separate calls to Graph.add.  The result is the same as adding the
+ * first occurrence of each distinct edge in the order given: successor
+ * orders and edge ids are identical.
+ */
+public class GraphBuilder {
+
+    /**
+     * A builder for a directed graph if DIRECTED, and otherwise an
+     * undirected one.
+     */
+    public GraphBuilder(boolean directed) {
+        _directed = directed;
+        _us = new int[INITIAL_CAPACITY];
+        _vs = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Ensure that the graph built has at least vertices 1 .. N.  Returns
+     * this builder.
+     */
+    public GraphBuilder vertices(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative vertex count");
+        }
+        _vertices = Math.max(_vertices, n);
+        return this;
+    }
+
+    /**
+     * Add edge (U, V).  Returns this builder.
+     */
+    public GraphBuilder add(int u, int v) {
+        if (u <= 0 || v <= 0) {
+            throw new IllegalArgumentException("vertex not positive");
+        }
+        if (_size == _us.length) {
+            _us = Arrays.copyOf(_us, 2 * _size);
+            _vs = Arrays.copyOf(_vs, 2 * _size);
+        }
+        _us[_size] = u;
+        _vs[_size] = v;
+        _size += 1;
+        return this;
+    }
+
+    /**
+     * Add the edges (US[k], VS[k]) in order of k.  Returns this builder.
+     */
+    public GraphBuilder add(int[] us, int[] vs) {
+        if (us.length != vs.length) {
+            throw new IllegalArgumentException("mismatched edge arrays");
+        }
+        for (int k = 0; k < us.length; k += 1) {
+            add(us[k], vs[k]);
+        }
+        return this;
+    }
+
+    /**
+     * Add the edges (u0, v0), (u1, v1), ... from PAIRS, which contains
+     * u0, v0, u1, v1, ... in encounter order.  Returns this builder.
+     */
+    public GraphBuilder add(IntStream pairs) {
+        PrimitiveIterator.OfInt ends = pairs.iterator();
+        while (ends.hasNext()) {
+            int u = ends.nextInt();
+            if (!ends.hasNext()) {
+                throw new IllegalArgumentException("odd number of end points");
+            }
+            add(u, ends.nextInt());
+        }
+        return this;
+    }
+
+    /**
+     * Returns a new DirectedGraph or UndirectedGraph with vertices 1 .. N,
+     * where N is the largest of the counts given to vertices(n) and the
+     * end points of my edges, containing my edges.
+     */
+    public Graph build() {
+        int n = _vertices;
+        for (int k = 0; k < _size; k += 1) {
+            n = Math.max(n, Math.max(_us[k], _vs[k]));
+        }
+        GraphObj result;
+        if (_directed) {
+            result = new DirectedGraph();
+        } else {
+            result = new UndirectedGraph();
+        }
+        int m = dedupe(n);
+        result.load(n, _us, _vs, m);
+        return result;
+    }
+
+    /**
+     * Add my edges to G, all of whose end points must already be vertices
+     * of G.  Edges G already has are unaffected.  Has the same effect as
+     * calling G.add on each of my edges in order, but packs them in one
+     * pass when G is, or merely delegates its additions to, an empty
+     * graph of this package, as a LabeledGraph does.  Returns true iff
+     * the edges were packed.
+     */
+    public boolean addTo(Graph G) {
+        if (G.isDirected() != _directed) {
+            throw new IllegalArgumentException("graph has wrong kind");
+        }
+        for (int k = 0; k < _size; k += 1) {
+            if (!G.contains(_us[k]) || !G.contains(_vs[k])) {
+                throw new IllegalArgumentException("vertex not from Graph");
+            }
+        }
+        GraphObj target = G.loadTarget();
+        if (target != null && target.edgeSize() == 0) {
+            int m = dedupe(target.maxVertex());
+            target.load(0, _us, _vs, m);
+            return true;
+        }
+        for (int k = 0; k < _size; k += 1) {
+            G.add(_us[k], _vs[k]);
+        }
+        return false;
+    }
+
+    /**
+     * Remove duplicate edges, all of whose end points are at most N,
+     * keeping the first occurrence of each and otherwise preserving
+     * order, and return the number remaining.  The edges are
+     * compacted to the front of _us and _vs.
+     */
+    private int dedupe(int n) {
+        int[] us = new int[_size], vs = new int[_size];
+        for (int k = 0; k < _size; k += 1) {
+            us[k] = _us[k];
+            vs[k] = _vs[k];
+            if (!_directed && us[k] > vs[k]) {
+                us[k] = _vs[k];
+                vs[k] = _us[k];
+            }
+        }
+
+        int[] start = new int[n + 2];
+        for (int k = 0; k < _size; k += 1) {
+            start[us[k] + 1] += 1;
+        }
+        for (int i = 1; i < start.length; i += 1) {
+            start[i] += start[i - 1];
+        }
+        int[] order = new int[_size];
+        int[] next = Arrays.copyOf(start, n + 1);
+        for (int k = 0; k < _size; k += 1) {
+            order[next[us[k]]] = k;
+            next[us[k]] += 1;
+        }
+
+        boolean[] keep = new boolean[_size];
+        int[] seen = new int[n + 1];
+        int remaining = 0;
+        for (int u = 1; u <= n; u += 1) {
+            for (int i = start[u]; i < start[u + 1]; i += 1) {
+                int k = order[i];
+                if (seen[vs[k]] != u) {
+                    seen[vs[k]] = u;
+                    keep[k] = true;
+                    remaining += 1;
+                }
+            }
+        }
+
+        int j = 0;
+        for (int k = 0; k < _size; k += 1) {
+            if (keep[k]) {
+                _us[j] = _us[k];
+                _vs[j] = _vs[k];
+                j += 1;
+            }
+        }
+        _size = remaining;
+        return remaining;
+    }
+
+    /**
+     * Initial length of the edge arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * True iff building a directed graph.
+     */
+    private final boolean _directed;
+    /**
+     * Minimum number of vertices in the result.
+     */
+    private int _vertices;
+    /**
+     * End points of my edges, in the first _size elements.
+     */
+    private int[] _us, _vs;
+    /**
+     * Number of edges added.
+     */
+    private int _size;
+}
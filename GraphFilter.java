@@ -96,16 +96,58 @@ public class GraphFilter extends Graph {
         return _G.predecessors(v);
     }
 
+    @Override
+    public IntIteration vertexInts() {
+        return _G.vertexInts();
+    }
+
+    @Override
+    public IntIteration successorInts(int v) {
+        return _G.successorInts(v);
+    }
+
+    @Override
+    public IntIteration predecessorInts(int v) {
+        return _G.predecessorInts(v);
+    }
+
     @Override
     public Iteration<int[]> edges() {
         return _G.edges();
     }
 
+    @Override
+    public int edges(int[] us, int[] vs) {
+        return _G.edges(us, vs);
+    }
+
     @Override
     protected int edgeId(int u, int v) {
         return _G.edgeId(u, v);
     }
 
+    /** Returns the read view of the graph I delegate to, or me if that
+     *  is the graph itself.  A subclass that changes which vertices or
+     *  edges I present must override this. */
+    @Override
+    Graph readView() {
+        Graph view = _G.readView();
+        return view == _G ? this : view;
+    }
+
+    /** Returns the load target of the graph I delegate to.  A subclass
+     *  whose add(u, v) does anything but add the edge to that graph must
+     *  override this to return null. */
+    @Override
+    GraphObj loadTarget() {
+        return _G.loadTarget();
+    }
+
+    @Override
+    int edgeIdLimit() {
+        return _G.edgeIdLimit();
+    }
+
     @Override
     protected boolean containcheck(int v) {
         return _G.containcheck(v);
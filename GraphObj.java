@@ -1,11 +1,8 @@
 package graph;
 
-import java.util.TreeSet;
-import java.util.LinkedList;
-import java.util.ArrayList;
-import java.util.List;
-
-import static java.util.Arrays.asList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NoSuchElementException;
 
 /* See restrictions in Graph.java. */
 
@@ -18,52 +15,106 @@ import static java.util.Arrays.asList;
 abstract class GraphObj extends Graph {
 
     /**
-     * An adjacency list for graph.
+     * Adjacency lists: _out[V] holds the successors of V in its first
+     * _outDegree[V] elements, in the order their edges were added.
+     * _out[V] is null iff V is not a vertex.  Element 0 is unused.
+     */
+    private int[][] _out;
+    /**
+     * Number of successors of each vertex.
+     */
+    private int[] _outDegree;
+    /**
+     * Reverse adjacency lists for directed graphs: _in[V] holds the
+     * predecessors of V in its first _inDegree[V] elements, in the order
+     * their edges were added.  Both are null for undirected graphs, whose
+     * predecessors are their successors.
+     */
+    private int[][] _in;
+    /**
+     * Number of predecessors of each vertex in a directed graph.
+     */
+    private int[] _inDegree;
+    /**
+     * Number of vertex numbers handed out so far (including removed ones).
      */
-    private LinkedList<List<Integer>> graphList;
+    private int _vertexLimit;
     /**
-     * A list storing graph edges.
+     * The set of current vertex numbers.  Numbers of removed vertices are
+     * reused smallest first.
      */
-    private LinkedList<List<Integer>> graphedges;
+    private BitSet _liveVertices = new BitSet();
+    /**
+     * A lower bound on the smallest unused vertex number (at least 1).
+     */
+    private int _freeVertex = 1;
+    /**
+     * The set of occupied edge slots.  Freed slots are reused smallest
+     * first.
+     */
+    private BitSet _liveEdges = new BitSet();
+    /**
+     * A lower bound on the smallest free edge slot.
+     */
+    private int _freeEdge;
+    /**
+     * Number of current vertices.
+     */
+    private int _vertexSize;
+    /**
+     * Largest current vertex number, or 0 if there are none.
+     */
+    private int _maxVertex;
+    /**
+     * Number of current edges.
+     */
+    private int _edgeSize;
+    /**
+     * Endpoints of the edge in each edge slot, numbering from 0, as
+     * they were given to add(u, v).  _edgeU[S] is 0 iff slot S is free.
+     * The id of the edge in slot S is S + 1, and freed slots are reused
+     * lowest first, so ids never exceed the largest number of edges the
+     * graph has held at once.
+     */
+    private int[] _edgeU, _edgeV;
+    /**
+     * Number of edge slots handed out so far (including freed ones).
+     */
+    private int _edgeLimit;
+    /**
+     * Maps each edge (U, V) to its slot in _edgeU and _edgeV.  Undirected
+     * edges are entered with U <= V.
+     */
+    private IntPairMap _edgeIndex;
 
     /**
      * A new, empty Graph.
      */
     GraphObj() {
-        graphList = new LinkedList<List<Integer>>();
-        graphedges = new LinkedList<List<Integer>>();
+        _out = new int[INITIAL_CAPACITY][];
+        _outDegree = new int[INITIAL_CAPACITY];
+        if (isDirected()) {
+            _in = new int[INITIAL_CAPACITY][];
+            _inDegree = new int[INITIAL_CAPACITY];
+        }
+        _edgeU = new int[INITIAL_CAPACITY];
+        _edgeV = new int[INITIAL_CAPACITY];
+        _edgeIndex = new IntPairMap();
     }
 
     @Override
     public int vertexSize() {
-        int index = 0;
-        for (int k = 0; k < graphList.size(); k++) {
-            if (graphList.get(k) != null) {
-                index++;
-            }
-        }
-        return index;
+        return _vertexSize;
     }
 
     @Override
     public int maxVertex() {
-        for (int k = graphList.size(); k > 0; k--) {
-            if (graphList.get(k - 1) != null) {
-                return k;
-            }
-        }
-        return 0;
+        return _maxVertex;
     }
 
     @Override
     public int edgeSize() {
-        int size = 0;
-        for (int k = 0; k < graphedges.size(); k++) {
-            if (graphedges.get(k) != null) {
-                size++;
-            }
-        }
-        return size;
+        return _edgeSize;
     }
 
     @Override
@@ -71,12 +122,8 @@ abstract class GraphObj extends Graph {
 
     @Override
     public int outDegree(int v) {
-        if (contains(v)) {
-            if (graphList.get(v - 1) == null) {
-                return 0;
-            } else {
-                return graphList.get(v - 1).size();
-            }
+        if (containcheck(v)) {
+            return _outDegree[v];
         }
         return 0;
     }
@@ -91,43 +138,46 @@ abstract class GraphObj extends Graph {
 
     @Override
     public boolean contains(int u, int v) {
-        if (contains(u) && contains(v)) {
-            if (isDirected()) {
-                return graphList.get(u - 1).contains(v);
-            } else {
-                return graphList.get(v - 1).contains(u)
-                        || graphList.get(u - 1).contains(v);
-            }
-        }
-        return false;
+        return containcheck(u) && containcheck(v) && slotOf(u, v) != -1;
     }
 
     @Override
     public int add() {
-        int index;
-        if (tempvertexstore.isEmpty()) {
-            graphList.add(new LinkedList<Integer>());
-            index = graphList.size() - 1;
-        } else {
-            index = tempvertexstore.pollFirst();
-            graphList.set(index, new LinkedList<Integer>());
+        int v = _liveVertices.nextClearBit(_freeVertex);
+        _liveVertices.set(v);
+        _freeVertex = v + 1;
+        if (v > _vertexLimit) {
+            _vertexLimit = v;
+            if (v == _out.length) {
+                _out = Arrays.copyOf(_out, 2 * v);
+                _outDegree = Arrays.copyOf(_outDegree, 2 * v);
+                if (_in != null) {
+                    _in = Arrays.copyOf(_in, 2 * v);
+                    _inDegree = Arrays.copyOf(_inDegree, 2 * v);
+                }
+            }
         }
-        return index + 1;
+        _out[v] = new int[INITIAL_DEGREE];
+        _outDegree[v] = 0;
+        if (_in != null) {
+            _in[v] = new int[INITIAL_DEGREE];
+            _inDegree[v] = 0;
+        }
+        _vertexSize += 1;
+        _maxVertex = Math.max(_maxVertex, v);
+        return v;
     }
 
     @Override
     public int add(int u, int v) {
         if (containcheck(u) && containcheck(v) && !contains(u, v)) {
-            if (isDirected()) {
-                graphList.get(u - 1).add(v);
-                addhelper(u, v);
-            } else {
-                graphList.get(u - 1).add(v);
-                if (u != v) {
-                    graphList.get(v - 1).add(u);
-                }
-                addhelper(u, v);
+            append(_out, _outDegree, u, v);
+            if (_in != null) {
+                append(_in, _inDegree, v, u);
+            } else if (u != v) {
+                append(_out, _outDegree, v, u);
             }
+            addhelper(u, v);
         }
         return edgeId(u, v);
     }
@@ -138,33 +188,160 @@ abstract class GraphObj extends Graph {
      * @param v v
      */
     private void addhelper(int u, int v) {
-        if (tempIDstore.isEmpty()) {
-            graphedges.add(asList(u, v));
+        int index = _liveEdges.nextClearBit(_freeEdge);
+        _liveEdges.set(index);
+        _freeEdge = index + 1;
+        _edgeSize += 1;
+        if (index == _edgeLimit) {
+            _edgeLimit += 1;
+            if (index == _edgeU.length) {
+                _edgeU = Arrays.copyOf(_edgeU, 2 * index);
+                _edgeV = Arrays.copyOf(_edgeV, 2 * index);
+            }
+        }
+        _edgeU[index] = u;
+        _edgeV[index] = v;
+        if (isDirected() || u <= v) {
+            _edgeIndex.put(u, v, index);
+        } else {
+            _edgeIndex.put(v, u, index);
+        }
+    }
+
+    /**
+     * Add vertices 1 .. N, if N > 0, and then the M edges (US[k], VS[k])
+     * in order of k.  Has the same effect as the corresponding calls of
+     * add() and add(u, v), but sizes every array once.  Assumes that I
+     * have no edges, that I have no vertices if N > 0, and that the edges
+     * are distinct and join my vertices.
+     */
+    void load(int n, int[] us, int[] vs, int m) {
+        for (int v = 1; v <= n; v += 1) {
+            add();
+        }
+        int[] degree = new int[_vertexLimit + 1];
+        int[] inDegree = new int[_vertexLimit + 1];
+        for (int k = 0; k < m; k += 1) {
+            degree[us[k]] += 1;
+            if (_in != null) {
+                inDegree[vs[k]] += 1;
+            } else if (us[k] != vs[k]) {
+                degree[vs[k]] += 1;
+            }
+        }
+        for (int v = 1; v <= _vertexLimit; v += 1) {
+            if (_out[v] != null && degree[v] > _out[v].length) {
+                _out[v] = new int[degree[v]];
+            }
+            if (_in != null && _in[v] != null
+                && inDegree[v] > _in[v].length) {
+                _in[v] = new int[inDegree[v]];
+            }
+        }
+        if (m > _edgeU.length) {
+            _edgeU = Arrays.copyOf(_edgeU, m);
+            _edgeV = Arrays.copyOf(_edgeV, m);
+        }
+        _edgeIndex = new IntPairMap(m);
+        for (int k = 0; k < m; k += 1) {
+            int u = us[k], v = vs[k];
+            append(_out, _outDegree, u, v);
+            if (_in != null) {
+                append(_in, _inDegree, v, u);
+            } else if (u != v) {
+                append(_out, _outDegree, v, u);
+            }
+            addhelper(u, v);
+        }
+    }
+
+    /**
+     * Returns the slot of edge (U, V), or -1 if there is no such edge.
+     */
+    private int slotOf(int u, int v) {
+        if (isDirected() || u <= v) {
+            return _edgeIndex.get(u, v);
         } else {
-            int index = tempIDstore.pollFirst();
-            graphedges.set(index, asList(u, v));
+            return _edgeIndex.get(v, u);
+        }
+    }
+
+    /**
+     * Add V to the end of U's list in LISTS, whose lengths are SIZES.
+     */
+    private static void append(int[][] lists, int[] sizes, int u, int v) {
+        int[] row = lists[u];
+        if (sizes[u] == row.length) {
+            row = lists[u] = Arrays.copyOf(row, 2 * row.length + 1);
+        }
+        row[sizes[u]] = v;
+        sizes[u] += 1;
+    }
+
+    /**
+     * Returns the index of V in U's list in LISTS, whose lengths are
+     * SIZES, or -1 if it is not there.  Assumes U is a vertex.
+     */
+    private static int indexOf(int[][] lists, int[] sizes, int u, int v) {
+        int[] row = lists[u];
+        for (int k = sizes[u] - 1; k >= 0; k -= 1) {
+            if (row[k] == v) {
+                return k;
+            }
         }
+        return -1;
+    }
+
+    /**
+     * Remove V from U's list in LISTS, whose lengths are SIZES, if
+     * present, preserving the order of the remaining entries.  Returns
+     * true iff V was there.
+     */
+    private static boolean unlink(int[][] lists, int[] sizes, int u, int v) {
+        int k = indexOf(lists, sizes, u, v);
+        if (k == -1) {
+            return false;
+        }
+        System.arraycopy(lists[u], k + 1, lists[u], k, sizes[u] - k - 1);
+        sizes[u] -= 1;
+        return true;
     }
 
     @Override
     public void remove(int v) {
-        if (contains(v)) {
-            if (graphList.get(v - 1) == null) {
-                return;
+        if (containcheck(v)) {
+            if (_in != null) {
+                for (int k = 0; k < _inDegree[v]; k += 1) {
+                    int u = _in[v][k];
+                    if (u != v) {
+                        unlink(_out, _outDegree, u, v);
+                        removehelper(u, v);
+                    }
+                }
             }
-            tempvertexstore.add(v - 1);
-            for (int k = 0; k < graphList.size(); k++) {
-                if (graphList.get(k) != null) {
-                    if (graphList.get(k).contains(v)) {
-                        graphList.get(k).remove(new Integer(v));
-                        removehelper(k + 1, v);
+            for (int k = 0; k < _outDegree[v]; k += 1) {
+                int w = _out[v][k];
+                if (w != v) {
+                    if (_in != null) {
+                        unlink(_in, _inDegree, w, v);
+                    } else {
+                        unlink(_out, _outDegree, w, v);
                     }
                 }
+                removehelper(v, w);
             }
-            for (int successor : graphList.get(v - 1)) {
-                removehelper(v, successor);
+            _out[v] = null;
+            _outDegree[v] = 0;
+            if (_in != null) {
+                _in[v] = null;
+                _inDegree[v] = 0;
+            }
+            _liveVertices.clear(v);
+            _freeVertex = Math.min(_freeVertex, v);
+            _vertexSize -= 1;
+            while (_maxVertex > 0 && _out[_maxVertex] == null) {
+                _maxVertex -= 1;
             }
-            graphList.set(v - 1, null);
         }
     }
 
@@ -174,46 +351,65 @@ abstract class GraphObj extends Graph {
      * @param v v
      */
     private void removehelper(int u, int v) {
-        int ind = graphedges.indexOf(asList(u, v));
+        int ind;
+        if (isDirected() || u <= v) {
+            ind = _edgeIndex.remove(u, v);
+        } else {
+            ind = _edgeIndex.remove(v, u);
+        }
         if (ind != -1) {
-            graphedges.set(ind, null);
-            tempIDstore.add(ind);
+            _edgeSize -= 1;
+            _edgeU[ind] = _edgeV[ind] = 0;
+            _liveEdges.clear(ind);
+            _freeEdge = Math.min(_freeEdge, ind);
         }
     }
 
     @Override
     public void remove(int u, int v) {
-        if (!isDirected()) {
-            graphList.get(v - 1).remove(new Integer(u));
-            graphList.get(u - 1).remove(new Integer(v));
-            removehelper(u, v);
-        } else {
-            graphList.get(u - 1).remove(new Integer(v));
+        if (containcheck(u) && containcheck(v)) {
+            if (_in != null) {
+                unlink(_in, _inDegree, v, u);
+            } else {
+                unlink(_out, _outDegree, v, u);
+            }
+            unlink(_out, _outDegree, u, v);
             removehelper(u, v);
         }
     }
 
     @Override
     public Iteration<Integer> vertices() {
-        LinkedList<Integer> verticeStore = new LinkedList<Integer>();
-        for (int k = 0; k < graphList.size(); k++) {
-            if (graphList.get(k) != null) {
-                verticeStore.add(k + 1);
-            }
-        }
-        return Iteration.iteration(verticeStore);
+        return vertexInts();
     }
 
     @Override
-    public int successor(int v, int k) {
-        if (contains(v)) {
-            for (int i : graphList.get(v - 1)) {
-                if (k == 0) {
-                    return i;
-                } else {
-                    k--;
+    public IntIteration vertexInts() {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return _v > 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (_v <= 0) {
+                    throw new NoSuchElementException();
                 }
+                int v = _v;
+                _v = _liveVertices.nextSetBit(v + 1);
+                return v;
             }
+
+            /** The next vertex, or -1 if there are none left. */
+            private int _v = _liveVertices.nextSetBit(1);
+        };
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        if (containcheck(v) && k >= 0 && k < _outDegree[v]) {
+            return _out[v][k];
         }
         return 0;
     }
@@ -223,31 +419,88 @@ abstract class GraphObj extends Graph {
 
     @Override
     public Iteration<Integer> successors(int v) {
-        if (graphList.get(v - 1) == null) {
-            return Iteration.iteration(new LinkedList<Integer>());
+        if (!containcheck(v)) {
+            return Iteration.iteration(NO_VERTICES, 0, 0);
         }
-        return Iteration.iteration(graphList.get(v - 1));
+        return Iteration.iteration(_out[v], 0, _outDegree[v]);
     }
 
     @Override
     public abstract Iteration<Integer> predecessors(int v);
 
+    /**
+     * Returns the number of edges entering V in a directed graph, or 0
+     * if V is not a vertex.
+     */
+    int incomingCount(int v) {
+        return containcheck(v) ? _inDegree[v] : 0;
+    }
+
+    /**
+     * Returns the source of incoming edge K of V in a directed graph,
+     * numbering from 0 in the order the edges were added, or 0 if there
+     * is no such edge.
+     */
+    int incoming(int v, int k) {
+        if (containcheck(v) && k >= 0 && k < _inDegree[v]) {
+            return _in[v][k];
+        }
+        return 0;
+    }
+
+    /**
+     * Returns an iteration over the sources of the edges entering V in a
+     * directed graph, in the order the edges were added.
+     */
+    IntIteration incoming(int v) {
+        if (!containcheck(v)) {
+            return Iteration.iteration(NO_VERTICES, 0, 0);
+        }
+        return Iteration.iteration(_in[v], 0, _inDegree[v]);
+    }
+
     @Override
     public Iteration<int[]> edges() {
-        ArrayList<int[]> edgestore = new ArrayList<int[]>();
-        for (int k = 0; k < graphedges.size(); k++) {
-            if (graphedges.get(k) == null) {
-                continue;
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                return _slot >= 0;
             }
-            edgestore.add(new int[]{graphedges.get(k).get(0),
-                    graphedges.get(k).get(1)});
+
+            @Override
+            public int[] next() {
+                if (_slot < 0) {
+                    throw new NoSuchElementException();
+                }
+                _edge[0] = _edgeU[_slot];
+                _edge[1] = _edgeV[_slot];
+                _slot = _liveEdges.nextSetBit(_slot + 1);
+                return _edge;
+            }
+
+            /** The next occupied edge slot, or -1 if there are none. */
+            private int _slot = _liveEdges.nextSetBit(0);
+            /** The array returned by every call of next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    public int edges(int[] us, int[] vs) {
+        int n;
+        n = 0;
+        for (int k = _liveEdges.nextSetBit(0); k >= 0;
+             k = _liveEdges.nextSetBit(k + 1)) {
+            us[n] = _edgeU[k];
+            vs[n] = _edgeV[k];
+            n += 1;
         }
-        return Iteration.iteration(edgestore);
+        return n;
     }
 
     @Override
     protected boolean containcheck(int v) {
-        return (v <= graphList.size()) && (graphList.get(v - 1) != null);
+        return v > 0 && v <= _vertexLimit && _out[v] != null;
     }
 
     @Override
@@ -259,35 +512,29 @@ abstract class GraphObj extends Graph {
 
     @Override
     protected int edgeId(int u, int v) {
-        if (contains(u, v)) {
+        return slotOf(u, v) + 1;
+    }
 
-            if (isDirected()) {
-                return cantar(u, v);
-            }
-            return cantar(u + v, u * v);
-        }
-        return 0;
+    @Override
+    int edgeIdLimit() {
+        return _edgeU.length;
     }
 
-    /**
-     * Uses cantar function.
-     *
-     * @param x x
-     * @param y y
-     * @return the result from the cantar.
-     */
-    private int cantar(int x, int y) {
-        return (x + y) * (x + y) + (3 * x) + y;
+    @Override
+    GraphObj loadTarget() {
+        return this;
     }
 
     /**
-     * ONLY FOR CHECKING Temprarily store the edge IDs which has been
-     * removed.
+     * Initial length of the vertex-indexed arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Initial length of a new vertex's adjacency list.
      */
-    private TreeSet<Integer> tempIDstore = new TreeSet<Integer>();
+    private static final int INITIAL_DEGREE = 2;
     /**
-     * ONLY FOR CHECKING Temprarily store the vertices index which has
-     * been removed.
+     * An empty adjacency list.
      */
-    private TreeSet<Integer> tempvertexstore = new TreeSet<Integer>();
+    private static final int[] NO_VERTICES = new int[0];
 }
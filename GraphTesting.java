@@ -2,6 +2,15 @@ package graph;
 
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
 import static org.junit.Assert.*;
 
 /**
@@ -28,6 +37,30 @@ public class GraphTesting {
         assertEquals(2, g.maxVertex());
     }
 
+    @Test
+    public void sizesAfterReuseTest() {
+        UndirectedGraph g = new UndirectedGraph();
+        g.add();
+        g.add();
+        g.add();
+        g.add(1, 2);
+        g.add(2, 3);
+        g.add(3, 3);
+        g.remove(2);
+        assertEquals(2, g.vertexSize());
+        assertEquals(1, g.edgeSize());
+        assertEquals(3, g.maxVertex());
+        g.remove(3);
+        assertEquals(1, g.maxVertex());
+        assertEquals(0, g.edgeSize());
+        assertEquals(2, g.add());
+        assertEquals(3, g.add());
+        g.add(1, 3);
+        assertEquals(3, g.vertexSize());
+        assertEquals(1, g.edgeSize());
+        assertEquals(3, g.maxVertex());
+    }
+
     @Test
     public void directeddegreeTest() {
         DirectedGraph g = new DirectedGraph();
@@ -85,4 +118,686 @@ public class GraphTesting {
         g.add(5, 7);
     }
 
+    @Test
+    public void intIterationTest() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            g.add();
+        }
+        g.add(2, 4);
+        g.add(2, 1);
+        g.add(3, 1);
+        g.remove(3);
+        Graph lg = new LabeledGraph<String, String>(g);
+        IntIteration vertices = lg.vertexInts();
+        assertEquals(1, vertices.nextInt());
+        assertEquals(2, vertices.nextInt());
+        assertEquals(4, vertices.nextInt());
+        assertFalse(vertices.hasNext());
+        IntIteration succ = lg.successorInts(2);
+        assertEquals(4, succ.nextInt());
+        assertEquals(1, (int) succ.next());
+        assertFalse(succ.hasNext());
+        IntIteration pred = g.freeze().predecessorInts(1);
+        assertEquals(2, pred.nextInt());
+        assertFalse(pred.hasNext());
+        assertFalse(lg.successorInts(3).hasNext());
+    }
+
+    @Test
+    public void edgesTest() {
+        UndirectedGraph g = new UndirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            g.add();
+        }
+        g.add(3, 1);
+        g.add(2, 4);
+        g.add(4, 4);
+        g.remove(2, 4);
+        g.add(1, 2);
+        int[] us = new int[g.edgeSize()], vs = new int[g.edgeSize()];
+        assertEquals(3, g.edges(us, vs));
+        assertArrayEquals(new int[] {3, 1, 4}, us);
+        assertArrayEquals(new int[] {1, 2, 4}, vs);
+        int n;
+        n = 0;
+        for (int[] e : g.freeze().edges()) {
+            assertEquals(us[n], e[0]);
+            assertEquals(vs[n], e[1]);
+            n += 1;
+        }
+        assertEquals(3, n);
+    }
+
+    @Test
+    public void edgeIdTest() {
+        DirectedGraph g = new DirectedGraph();
+        LabeledGraph<String, String> lg = new LabeledGraph<>(g);
+        for (int i = 0; i < 4; i += 1) {
+            lg.add("v");
+        }
+        assertEquals(1, lg.add(1, 2, "a"));
+        assertEquals(2, lg.add(2, 3, "b"));
+        assertEquals(3, lg.add(3, 4, "c"));
+        assertEquals(2, g.edgeId(2, 3));
+        assertEquals(0, g.edgeId(3, 2));
+        lg.remove(2);
+        assertEquals(1, lg.edgeSize());
+        assertEquals(1, lg.add(4, 1));
+        assertNull(lg.getLabel(4, 1));
+        assertEquals(2, lg.add(1, 3));
+        assertNull(lg.getLabel(1, 3));
+        assertEquals("c", lg.getLabel(3, 4));
+        assertEquals(4, lg.add(1, 4));
+    }
+
+    @Test
+    public void freezeTest() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 5; i += 1) {
+            g.add();
+        }
+        g.add(1, 3);
+        g.add(1, 2);
+        g.add(3, 2);
+        g.add(5, 1);
+        g.remove(4);
+        Graph f = g.freeze();
+        assertEquals(4, f.vertexSize());
+        assertEquals(5, f.maxVertex());
+        assertEquals(4, f.edgeSize());
+        assertFalse(f.contains(4));
+        assertTrue(f.contains(3, 2));
+        assertFalse(f.contains(2, 3));
+        assertEquals(3, f.successor(1, 0));
+        assertEquals(2, f.successor(1, 1));
+        assertEquals(0, f.successor(1, 2));
+        assertEquals(2, f.inDegree(2));
+        assertEquals(1, f.predecessor(2, 0));
+        assertEquals(3, f.predecessor(2, 1));
+        g.remove(1, 2);
+        Graph h = g.freeze();
+        assertEquals(3, h.edgeSize());
+        assertEquals(g.edgeId(1, 3), h.edgeId(1, 3));
+        assertEquals(g.edgeId(3, 2), h.edgeId(3, 2));
+        assertEquals(g.edgeId(5, 1), h.edgeId(5, 1));
+        assertEquals(0, h.edgeId(1, 2));
+        Iteration<int[]> edges = h.edges();
+        for (int[] e : g.edges()) {
+            assertArrayEquals(e, edges.next());
+        }
+        try {
+            edges.next();
+            fail("edges() not exhausted");
+        } catch (NoSuchElementException excp) {
+            /* Expected. */
+        }
+        try {
+            f.add();
+            fail("frozen graph modified");
+        } catch (UnsupportedOperationException excp) {
+            /* Expected. */
+        }
+
+        UndirectedGraph u = new UndirectedGraph();
+        u.add();
+        u.add();
+        u.add();
+        u.add(1, 2);
+        u.add(3, 2);
+        LabeledGraph<String, String> lu = new LabeledGraph<>(u);
+        lu.setLabel(2, "b");
+        lu.setLabel(3, 2, "c");
+        LabeledGraph<String, String> lf = lu.freeze();
+        assertEquals(2, lf.edgeSize());
+        assertEquals(2, lf.degree(2));
+        assertEquals("b", lf.getLabel(2));
+        assertEquals("c", lf.getLabel(2, 3));
+        assertNull(lf.getLabel(1, 2));
+    }
+
+    @Test
+    public void builderTest() {
+        Graph g = new GraphBuilder(false)
+            .vertices(5)
+            .add(new int[] {2, 1, 3}, new int[] {1, 3, 3})
+            .add(IntStream.of(1, 2, 3, 1, 4, 2))
+            .build();
+        assertFalse(g.isDirected());
+        assertEquals(5, g.vertexSize());
+        assertEquals(4, g.edgeSize());
+        assertEquals(2, g.successor(1, 0));
+        assertEquals(3, g.successor(1, 1));
+        assertEquals(3, g.successor(3, 1));
+        assertEquals(4, g.edgeId(2, 4));
+        assertEquals(0, g.degree(5));
+
+        DirectedGraph d = new DirectedGraph();
+        d.add();
+        d.add();
+        d.add();
+        assertTrue(new GraphBuilder(true).add(3, 1).add(1, 2).add(3, 1)
+                   .addTo(d));
+        assertEquals(2, d.edgeSize());
+        assertEquals(1, d.edgeId(3, 1));
+        assertEquals(3, d.predecessor(1, 0));
+        assertEquals(3, d.add(2, 3));
+        assertFalse(new GraphBuilder(true).add(1, 3).addTo(d));
+        assertEquals(4, d.edgeId(1, 3));
+
+        LabeledGraph<String, String> lab =
+            new LabeledGraph<>(new DirectedGraph());
+        lab.add("a");
+        lab.add("b");
+        assertTrue(new GraphBuilder(true).add(2, 1).add(1, 2).addTo(lab));
+        assertEquals(1, lab.edgeId(2, 1));
+        assertEquals(1, lab.successor(2, 0));
+        lab.setLabel(1, 2, "e");
+        assertEquals("e", lab.getLabel(1, 2));
+        FilteredGraph<String, String> view =
+            new FilteredGraph<>(lab, x -> true, x -> true);
+        try {
+            new GraphBuilder(true).add(1, 1).addTo(view);
+            fail("added to a read-only view");
+        } catch (UnsupportedOperationException excp) {
+            assertEquals(2, lab.edgeSize());
+        }
+    }
+
+    @Test
+    public void mappedGraphTest() throws IOException {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(4, 2);
+        g.add(2, 1);
+        g.add(1, 4);
+        g.remove(1, 2);
+        g.remove(3);
+        Path file = Files.createTempFile("graph", ".map");
+        try {
+            MappedGraph.write(g, file);
+            Graph m = MappedGraph.open(file);
+            assertEquals(3, m.vertexSize());
+            assertEquals(4, m.maxVertex());
+            assertEquals(3, m.edgeSize());
+            assertFalse(m.contains(3));
+            assertTrue(m.contains(4, 2));
+            assertEquals(1, m.inDegree(2));
+            assertEquals(4, m.predecessor(2, 0));
+            assertEquals(g.edgeId(2, 1), m.edgeId(2, 1));
+            assertEquals(g.edgeId(1, 4), m.edgeId(1, 4));
+            assertFalse(m.contains(1, 2));
+            assertEquals(4, m.edges().next()[0]);
+            LabeledGraph<String, String> lm = new LabeledGraph<>(m);
+            lm.setLabel(4, 2, "x");
+            assertEquals("x", lm.getLabel(4, 2));
+
+            UndirectedGraph u = new UndirectedGraph();
+            for (int i = 0; i < 3; i += 1) {
+                u.add();
+            }
+            u.add(3, 1);
+            u.add(2, 2);
+            u.add(1, 2);
+            u.remove(3, 1);
+            MappedGraph.write(u, file);
+            Graph mu = MappedGraph.open(file);
+            assertEquals(2, mu.edgeSize());
+            assertEquals(u.edgeId(2, 1), mu.edgeId(1, 2));
+            assertEquals(u.edgeId(2, 2), mu.edgeId(2, 2));
+            assertEquals(2, mu.outDegree(2));
+
+            Graph huge = new GraphFilter(g) {
+                @Override
+                public int maxVertex() {
+                    return MappedGraph.MAX_ENTRIES;
+                }
+            };
+            long size = Files.size(file);
+            try {
+                MappedGraph.write(huge, file);
+                fail("oversized graph written");
+            } catch (IllegalArgumentException excp) {
+                assertEquals(size, Files.size(file));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void concurrentGraphTest() {
+        ConcurrentGraph g = new ConcurrentGraph(true);
+        g.add();
+        g.add();
+        g.add();
+        assertEquals(1, g.add(1, 2));
+        assertEquals(2, g.add(3, 2));
+        Graph before = g.snapshot();
+        g.remove(1);
+        assertEquals(1, g.add(2, 3));
+        assertEquals(2, g.vertexSize());
+        assertEquals(1, g.inDegree(3));
+        assertEquals(3, before.vertexSize());
+        assertEquals(2, before.inDegree(2));
+        assertEquals(3, before.predecessor(2, 1));
+        assertFalse(before.contains(2, 3));
+        try {
+            before.add();
+            fail("snapshot modified");
+        } catch (UnsupportedOperationException excp) {
+            /* Expected. */
+        }
+        assertEquals(1, g.add());
+        assertEquals(0, g.inDegree(1));
+    }
+
+    @Test
+    public void concurrentSearchTest() throws InterruptedException {
+        final int n = 100;
+        LabeledGraph<String, String> g =
+            new LabeledGraph<>(new ConcurrentGraph(true));
+        for (int v = 1; v <= n; v += 1) {
+            g.add("v" + v);
+        }
+        for (int v = 1; v < n; v += 1) {
+            g.add(v, v + 1, "step");
+        }
+        LabeledGraph<String, String> view = g.readView();
+        assertNotSame(g, view);
+        assertEquals("v1", view.getLabel(1));
+        FilteredGraph<String, String> f =
+            new FilteredGraph<>(g, lab -> true, lab -> true);
+        assertTrue(f.readView() instanceof FilteredGraph);
+
+        Thread writer = new Thread(() -> {
+            for (int k = 0; k < 20; k += 1) {
+                for (int v = 1; v + 2 <= n; v += 1) {
+                    g.add(v, v + 2, "skip");
+                }
+                for (int v = 1; v + 2 <= n; v += 1) {
+                    g.remove(v, v + 2);
+                }
+            }
+        });
+        writer.start();
+        int searches = 0;
+        do {
+            SimpleShortestPaths paths = new SimpleShortestPaths(g, 1, n) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    assertTrue(getGraph().contains(u, v));
+                    return 1.0;
+                }
+            };
+            paths.setPaths();
+            Graph searched = paths.getGraph();
+            assertNotSame(g, searched);
+            List<Integer> path = paths.pathTo();
+            for (int k = 1; k < path.size(); k += 1) {
+                assertTrue(searched.contains(path.get(k - 1), path.get(k)));
+            }
+            assertEquals(path.size() - 1, paths.getWeight(n), 0.0);
+            searches += 1;
+        } while (writer.isAlive());
+        writer.join();
+        assertTrue(searches > 0);
+        assertEquals(n - 1, g.edgeSize());
+        assertEquals(n - 1, view.edgeSize());
+    }
+
+    @Test
+    public void concurrentBuilderTest() throws InterruptedException {
+        ConcurrentGraphBuilder b = new ConcurrentGraphBuilder(false);
+        for (int v = 1; v <= 100; v += 1) {
+            assertEquals(v, b.add());
+        }
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t += 1) {
+            workers[t] = new Thread(() -> {
+                for (int u = 1; u <= 100; u += 1) {
+                    b.add(u, u % 100 + 1);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Graph g = b.build();
+        assertEquals(100, g.vertexSize());
+        assertEquals(100, g.edgeSize());
+        assertEquals(2, g.outDegree(1));
+        assertTrue(g.contains(100, 1));
+        assertEquals(1, g.edgeId(1, 2));
+        try {
+            b.add(1, 101);
+            fail("unknown vertex accepted");
+        } catch (IllegalArgumentException excp) {
+            /* Expected. */
+        }
+    }
+
+    @Test
+    public void reorderTest() {
+        LabeledGraph<String, String> g =
+            new LabeledGraph<>(new UndirectedGraph());
+        for (String name : new String[] { "a", "b", "c", "d", "e" }) {
+            g.add(name);
+        }
+        g.add(1, 5, "ae");
+        g.add(5, 2, "eb");
+        g.add(3, 4, "cd");
+        Reordering bfs = Reordering.bfs(g);
+        assertEquals(5, bfs.size());
+        assertEquals(2, bfs.newId(5));
+        assertEquals(3, bfs.newId(2));
+        assertEquals(5, bfs.oldId(2));
+        LabeledGraph<String, String> h = bfs.apply(g);
+        assertEquals("e", h.getLabel(2));
+        assertEquals("eb", h.getLabel(3, 2));
+        assertEquals(3, h.edgeSize());
+
+        Reordering rcm = Reordering.cuthillMcKee(g);
+        for (int v = 1; v <= 5; v += 1) {
+            assertEquals(v, rcm.newId(rcm.oldId(v)));
+        }
+        Graph r = rcm.apply((Graph) g);
+        assertTrue(r.contains(rcm.newId(1), rcm.newId(5)));
+        assertEquals(1, Math.abs(rcm.newId(3) - rcm.newId(4)));
+
+        int[] xs = { 0, 0, 9, 0, 9, 0 }, ys = { 0, 0, 9, 0, 0, 9 };
+        Reordering hilbert = Reordering.hilbert(g, v -> xs[v], v -> ys[v]);
+        assertEquals(1, hilbert.newId(1));
+        assertEquals(2, hilbert.newId(3));
+        assertEquals(3, hilbert.newId(5));
+        assertEquals(4, hilbert.newId(2));
+        assertEquals(5, hilbert.newId(4));
+    }
+
+    @Test
+    public void reorderRoutesTest() {
+        final int side = 12;
+        LabeledGraph<String, String> g =
+            new LabeledGraph<>(new DirectedGraph());
+        DoubleColumn xs = g.vertexColumn("x"), ys = g.vertexColumn("y");
+        for (int v = 1; v <= side * side; v += 1) {
+            g.add();
+            xs.set(v, (v - 1) % side);
+            ys.set(v, (v - 1) / side);
+        }
+        for (int v = 1; v <= side * side; v += 1) {
+            if (v % side != 0) {
+                g.add(v, v + 1);
+                g.add(v + 1, v);
+            }
+            if (v + side <= side * side) {
+                g.add(v, v + side);
+                g.add(v + side, v);
+            }
+        }
+        Reordering order = Reordering.hilbert(g, xs::get, ys::get);
+        Graph h = order.apply(g).freeze();
+        int[][] trips = { { 1, side * side }, { side, side * (side - 1) + 1 },
+                          { 20, 125 }, { 77, 3 } };
+        for (int[] trip : trips) {
+            List<Integer> before =
+                gridRoute(g, trip[0], trip[1], xs::get, ys::get);
+            List<Integer> after =
+                gridRoute(h, order.newId(trip[0]), order.newId(trip[1]),
+                          x -> xs.get(order.oldId(x)),
+                          y -> ys.get(order.oldId(y)));
+            after.replaceAll(order::oldId);
+            assertEquals(before, after);
+        }
+    }
+
+    /** Returns a route from SOURCE to DEST in G in which every edge has
+     *  weight 1, found by A* search guided by straight-line distances
+     *  between the points (X(V), Y(V)). */
+    private static List<Integer> gridRoute(Graph G, int source, int dest,
+                                           IntToDoubleFunction x,
+                                           IntToDoubleFunction y) {
+        SimpleShortestPaths paths = new SimpleShortestPaths(G, source, dest) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return 1.0;
+            }
+
+            @Override
+            protected double estimatedDistance(int v) {
+                return Math.hypot(x.applyAsDouble(v) - x.applyAsDouble(dest),
+                                  y.applyAsDouble(v) - y.applyAsDouble(dest));
+            }
+        };
+        paths.setPaths();
+        return new ArrayList<>(paths.pathTo());
+    }
+
+    @Test
+    public void compressedTest() {
+        DirectedGraph g = new DirectedGraph();
+        for (int k = 0; k < 300; k += 1) {
+            g.add();
+        }
+        g.add(5, 300);
+        g.add(5, 2);
+        g.add(5, 4);
+        g.add(2, 5);
+        g.remove(100);
+        CompressedGraph c = new CompressedGraph(g);
+        assertEquals(299, c.vertexSize());
+        assertEquals(300, c.maxVertex());
+        assertFalse(c.contains(100));
+        assertEquals(4, c.edgeSize());
+        assertEquals(3, c.outDegree(5));
+        assertEquals(2, c.successor(5, 0));
+        assertEquals(300, c.successor(5, 2));
+        assertEquals(0, c.successor(5, 3));
+        assertEquals(5, c.predecessor(2, 0));
+        assertTrue(c.contains(5, 4));
+        assertFalse(c.contains(4, 5));
+        assertEquals(1, c.edgeId(2, 5));
+        assertEquals(4, c.edgeId(5, 300));
+        assertTrue(c.bitsPerEdge() > 0);
+
+        UndirectedGraph u = new UndirectedGraph();
+        u.add();
+        u.add();
+        u.add();
+        u.add(3, 1);
+        u.add(2, 2);
+        CompressedGraph d = new CompressedGraph(u);
+        assertEquals(2, d.edgeSize());
+        assertEquals(1, d.edgeId(3, 1));
+        assertEquals(d.edgeId(1, 3), d.edgeId(3, 1));
+        assertEquals(2, d.edgeId(2, 2));
+        int n = 0;
+        for (int[] e : d.edges()) {
+            assertTrue(e[0] <= e[1]);
+            n += 1;
+        }
+        assertEquals(2, n);
+
+        final int side = 100;
+        GraphBuilder b = new GraphBuilder(false).vertices(side * side);
+        for (int v = 1; v <= side * side; v += 1) {
+            if (v % side != 0) {
+                b.add(v, v + 1);
+            }
+            if (v + side <= side * side) {
+                b.add(v, v + side);
+            }
+        }
+        Graph grid = b.build();
+        CompressedGraph cgrid = new CompressedGraph(grid);
+        n = 0;
+        for (int[] e : cgrid.edges()) {
+            n += 1;
+            assertEquals(n, cgrid.edgeId(e[1], e[0]));
+        }
+        assertEquals(grid.edgeSize(), n);
+        assertEquals(grid.outDegree(5050), cgrid.outDegree(5050));
+        assertEquals(5150, cgrid.successor(5050, 3));
+        assertTrue(cgrid.bitsPerEdge() < 40);
+    }
+
+    @Test
+    public void overlayTest() throws Exception {
+        LabeledGraph<String, String> g =
+            new LabeledGraph<>(new DirectedGraph());
+        g.add("a");
+        g.add("b");
+        g.add("c");
+        g.add(1, 2, "ab");
+        g.add(2, 3, "bc");
+        OverlayGraph<String, String> o = new OverlayGraph<>(g.freeze());
+        assertEquals("ab", o.getLabel(1, 2));
+        o.remove(2);
+        assertEquals(0, o.edgeSize());
+        assertEquals(2, o.add("B"));
+        assertFalse(o.contains(1, 2));
+        o.add(3, 2, "cB");
+        o.setLabel(1, "A");
+        assertEquals(1, o.edgeSize());
+        assertEquals(1, o.inDegree(2));
+        assertEquals(3, o.predecessor(2, 0));
+        assertEquals("B", o.getLabel(2));
+        assertEquals("A", o.getLabel(1));
+        assertEquals("cB", o.getLabel(3, 2));
+
+        LabeledGraph<String, String> c = o.compact().get();
+        o.remove(3, 2);
+        assertEquals(3, c.vertexSize());
+        assertEquals(1, c.edgeSize());
+        assertEquals("cB", c.getLabel(3, 2));
+        assertEquals("A", c.getLabel(1));
+        assertFalse(o.contains(3, 2));
+    }
+
+    @Test
+    public void filteredTest() {
+        LabeledGraph<String, Integer> g =
+            new LabeledGraph<>(new UndirectedGraph());
+        g.add("a");
+        g.add("b");
+        g.add("x");
+        g.add("c");
+        g.add(1, 2, 1);
+        g.add(1, 3, 1);
+        g.add(2, 4, 9);
+        g.add(1, 4, 2);
+        FilteredGraph<String, Integer> f =
+            new FilteredGraph<>(g, lab -> !lab.equals("x"), w -> w < 5);
+        assertEquals(3, f.vertexSize());
+        assertEquals(4, f.maxVertex());
+        assertFalse(f.contains(3));
+        assertFalse(f.contains(1, 3));
+        assertFalse(f.contains(4, 2));
+        assertTrue(f.contains(4, 1));
+        assertEquals(2, f.outDegree(1));
+        assertEquals(4, f.successor(1, 1));
+        assertEquals(2, f.edgeSize());
+        assertEquals(0, f.edgeId(2, 4));
+        assertEquals(g.edgeId(1, 4), f.edgeId(1, 4));
+        assertEquals(Integer.valueOf(2), f.getLabel(1, 4));
+        g.setLabel(2, 4, 3);
+        assertTrue(f.contains(2, 4));
+        assertEquals(3, f.freeze().edgeSize());
+        try {
+            f.add(1, 3);
+            fail("view modified");
+        } catch (UnsupportedOperationException excp) {
+            /* Expected. */
+        }
+    }
+
+    @Test
+    public void columnTest() throws IOException {
+        LabeledGraph<String, String> g =
+            new LabeledGraph<>(new DirectedGraph());
+        g.add("a");
+        g.add("b");
+        g.add("c");
+        g.add(1, 3);
+        g.add(1, 2);
+        g.remove(1, 3);
+        g.add(2, 3);
+        DoubleColumn len = g.edgeColumn("len");
+        g.setValue(len, 1, 2, 1.5);
+        g.setValue(len, 2, 3, 2.5);
+        g.vertexColumn("x").set(3, 7.0);
+        assertEquals(2.5, g.getValue(len, 2, 3), 0.0);
+        assertEquals(0.0, g.vertexColumn("x").get(2), 0.0);
+
+        LabeledGraph<String, String> f = g.freeze();
+        assertEquals(1.5, f.getValue(f.edgeColumn("len"), 1, 2), 0.0);
+        assertEquals(2.5, f.getValue(f.edgeColumn("len"), 2, 3), 0.0);
+        assertEquals(7.0, f.vertexColumn("x").get(3), 0.0);
+
+        OverlayGraph<String, String> o = new OverlayGraph<>(f);
+        o.add(3, 1);
+        o.setValue(o.edgeColumn("len"), 3, 1, 4.0);
+        assertEquals(2.5, o.getValue(o.edgeColumn("len"), 2, 3), 0.0);
+        assertEquals(4.0, o.getValue(o.edgeColumn("len"), 3, 1), 0.0);
+
+        Path file = Files.createTempFile("column", ".bin");
+        try {
+            f.edgeColumn("len").write(file);
+            DoubleColumn mapped = DoubleColumn.open(file);
+            f.setEdgeColumn("len", mapped);
+            assertEquals(2.5, f.getValue(mapped, 2, 3), 0.0);
+            assertEquals(f.edgeColumn("len").size(), mapped.size());
+            try {
+                mapped.set(1, 0.0);
+                fail("mapped column modified");
+            } catch (UnsupportedOperationException excp) {
+                /* Expected. */
+            }
+        } finally {
+            Files.delete(file);
+        }
+
+        SimpleShortestPaths paths = new SimpleShortestPaths(f, 1, 3) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return Double.POSITIVE_INFINITY;
+            }
+
+            @Override
+            protected DoubleColumn edgeWeights() {
+                return f.edgeColumn("len");
+            }
+        };
+        paths.setPaths();
+        assertEquals(4.0, paths.getWeight(3), 0.0);
+    }
+
+    @Test
+    public void componentsTest() {
+        Graph g = new GraphBuilder(true).vertices(7)
+            .add(1, 2).add(2, 3).add(3, 1).add(3, 4).add(5, 5).add(6, 7)
+            .build();
+        Components s = Components.strong(g);
+        assertEquals(5, s.count());
+        assertTrue(s.same(1, 3));
+        assertFalse(s.same(3, 4));
+        assertTrue(s.component(4) < s.component(3));
+        assertArrayEquals(new int[] { 1, 2, 3 }, s.members(s.component(2)));
+        assertEquals(1, s.size(s.component(5)));
+        assertEquals(0, s.component(8));
+        Components c = Components.connected(g);
+        assertEquals(3, c.count());
+        assertArrayEquals(new int[] { 0, 1, 1, 1, 1, 2, 3, 3 }, c.ids());
+        int n = 300000;
+        GraphBuilder chain = new GraphBuilder(true).vertices(n);
+        for (int v = 1; v < n; v += 1) {
+            chain.add(v, v + 1);
+        }
+        chain.add(n, 1);
+        assertEquals(1, Components.strong(chain.build()).count());
+    }
 }
@@ -0,0 +1,56 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Iterator;
+
+/** An Iteration over vertex numbers that can deliver them as primitive
+ *  ints through nextInt(), so that loops such as
+ *      IntIteration succ = G.successorInts(v);
+ *      while (succ.hasNext()) {
+ *          int w = succ.nextInt();
+ *           ...
+ *      }
+ *  do not box each value.  next() is equivalent to nextInt(), boxed.
+ */
+public abstract class IntIteration extends Iteration<Integer> {
+
+    /** Returns the next value, as for next(). */
+    public abstract int nextInt();
+
+    @Override
+    public Integer next() {
+        return nextInt();
+    }
+
+    /** A wrapper that turns an Iterator<Integer> into an IntIteration. */
+    private static class BoxedIteration extends IntIteration {
+        /** ITER as an IntIteration. */
+        BoxedIteration(Iterator<Integer> iter) {
+            _iter = iter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _iter.hasNext();
+        }
+
+        @Override
+        public int nextInt() {
+            return _iter.next();
+        }
+
+        /** The iterator with which I was constructed. */
+        private final Iterator<Integer> _iter;
+    }
+
+    /** Returns an IntIteration that delegates to IT, or IT itself if it
+     *  is already an IntIteration. */
+    static IntIteration of(Iterator<Integer> it) {
+        if (it instanceof IntIteration) {
+            return (IntIteration) it;
+        }
+        return new BoxedIteration(it);
+    }
+
+}
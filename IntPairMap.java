@@ -0,0 +1,176 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+/**
+ * A map from pairs of positive ints to non-negative ints, stored in a
+ * single open-addressing table with linear probing, so that lookups,
+ * insertions and removals take expected constant time without boxing.
+ */
+class IntPairMap {
+
+    /**
+     * An empty map.
+     */
+    IntPairMap() {
+        _keys = new long[INITIAL_CAPACITY];
+        _values = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * An empty map that can hold N pairs without resizing.
+     */
+    IntPairMap(int n) {
+        this();
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < 2 * n) {
+            capacity *= 2;
+        }
+        resize(capacity);
+    }
+
+    /**
+     * A map containing the same pairs as M.
+     */
+    IntPairMap(IntPairMap m) {
+        _keys = m._keys.clone();
+        _values = m._values.clone();
+        _shift = m._shift;
+        _size = m._size;
+    }
+
+    /**
+     * Returns the number of pairs in me.
+     */
+    int size() {
+        return _size;
+    }
+
+    /**
+     * Returns the value for (U, V), or -1 if there is none.
+     */
+    int get(int u, int v) {
+        long key = key(u, v);
+        for (int i = slot(key); _keys[i] != 0; i = (i + 1) & mask()) {
+            if (_keys[i] == key) {
+                return _values[i];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Set the value for (U, V) to VALUE, which must be non-negative.
+     */
+    void put(int u, int v, int value) {
+        if (2 * (_size + 1) > _keys.length) {
+            resize(2 * _keys.length);
+        }
+        long key = key(u, v);
+        int i;
+        for (i = slot(key); _keys[i] != 0; i = (i + 1) & mask()) {
+            if (_keys[i] == key) {
+                _values[i] = value;
+                return;
+            }
+        }
+        _keys[i] = key;
+        _values[i] = value;
+        _size += 1;
+    }
+
+    /**
+     * Remove (U, V), returning its value, or -1 if it was absent.
+     */
+    int remove(int u, int v) {
+        long key = key(u, v);
+        int i;
+        for (i = slot(key); _keys[i] != key; i = (i + 1) & mask()) {
+            if (_keys[i] == 0) {
+                return -1;
+            }
+        }
+        int result = _values[i];
+        _size -= 1;
+        for (int j = (i + 1) & mask(); _keys[j] != 0; j = (j + 1) & mask()) {
+            int home = slot(_keys[j]);
+            if (((j - home) & mask()) >= ((j - i) & mask())) {
+                _keys[i] = _keys[j];
+                _values[i] = _values[j];
+                i = j;
+            }
+        }
+        _keys[i] = 0;
+        return result;
+    }
+
+    /**
+     * Returns the single key representing (U, V).  Never 0 for
+     * positive U and V.
+     */
+    private static long key(int u, int v) {
+        return ((long) u << Integer.SIZE) | (v & 0xffffffffL);
+    }
+
+    /**
+     * Returns the home slot of KEY.
+     */
+    private int slot(long key) {
+        long h = key * HASH_MULTIPLIER;
+        return (int) (h >>> (Long.SIZE - _shift)) & mask();
+    }
+
+    /**
+     * Returns the mask selecting an index into my table.
+     */
+    private int mask() {
+        return _keys.length - 1;
+    }
+
+    /**
+     * Rehash my contents into tables of length CAPACITY, a power of 2.
+     */
+    private void resize(int capacity) {
+        long[] keys = _keys;
+        int[] values = _values;
+        _keys = new long[capacity];
+        _values = new int[capacity];
+        _shift = Integer.numberOfTrailingZeros(capacity);
+        for (int i = 0; i < keys.length; i += 1) {
+            if (keys[i] != 0) {
+                int j;
+                for (j = slot(keys[i]); _keys[j] != 0; j = (j + 1) & mask()) {
+                    continue;
+                }
+                _keys[j] = keys[i];
+                _values[j] = values[i];
+            }
+        }
+    }
+
+    /**
+     * Initial table length (a power of 2).
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Multiplier for Fibonacci hashing of keys.
+     */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Keys of the table, with 0 marking an empty slot.
+     */
+    private long[] _keys;
+    /**
+     * Value corresponding to each key.
+     */
+    private int[] _values;
+    /**
+     * Log2 of the length of my table.
+     */
+    private int _shift = Integer.numberOfTrailingZeros(INITIAL_CAPACITY);
+    /**
+     * Number of pairs in me.
+     */
+    private int _size;
+}
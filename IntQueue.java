@@ -0,0 +1,175 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A queue of ints held in a circular array, which removes items either
+ * first-in-first-out (fifo()) or last-in-first-out (lifo()).  Besides
+ * the Queue operations, which box their items, it provides addInt,
+ * removeInt and peekInt, which do not, so that a Traversal whose fringe
+ * is an IntQueue allocates nothing once the array has grown to its
+ * working size.
+ */
+public class IntQueue extends AbstractQueue<Integer> {
+
+    /**
+     * Returns a new, empty first-in-first-out queue.
+     */
+    public static IntQueue fifo() {
+        return new IntQueue(false);
+    }
+
+    /**
+     * Returns a new, empty last-in-first-out queue (a stack).
+     */
+    public static IntQueue lifo() {
+        return new IntQueue(true);
+    }
+
+    /**
+     * An empty queue that is last-in-first-out iff LIFO.
+     */
+    private IntQueue(boolean lifo) {
+        _lifo = lifo;
+    }
+
+    /**
+     * Add V to me.
+     */
+    public void addInt(int v) {
+        if (_size == _items.length) {
+            grow();
+        }
+        _items[(_head + _size) & (_items.length - 1)] = v;
+        _size += 1;
+    }
+
+    /**
+     * Remove and return my next item.  Throws NoSuchElementException if
+     * I am empty.
+     */
+    public int removeInt() {
+        int v = peekInt();
+        if (!_lifo) {
+            _head = (_head + 1) & (_items.length - 1);
+        }
+        _size -= 1;
+        return v;
+    }
+
+    /**
+     * Returns my next item without removing it.  Throws
+     * NoSuchElementException if I am empty.
+     */
+    public int peekInt() {
+        if (_size == 0) {
+            throw new NoSuchElementException();
+        }
+        return _items[position(0)];
+    }
+
+    @Override
+    public boolean offer(Integer v) {
+        addInt(v);
+        return true;
+    }
+
+    @Override
+    public Integer poll() {
+        return _size == 0 ? null : removeInt();
+    }
+
+    @Override
+    public Integer peek() {
+        return _size == 0 ? null : peekInt();
+    }
+
+    @Override
+    public int size() {
+        return _size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return _size == 0;
+    }
+
+    @Override
+    public void clear() {
+        _head = _size = 0;
+    }
+
+    /**
+     * Returns an iterator over my items in the order they would be
+     * removed.  It does not support remove.
+     */
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return _k < _size;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _k += 1;
+                return _items[position(_k - 1)];
+            }
+
+            /** Number of items returned so far. */
+            private int _k;
+        };
+    }
+
+    /**
+     * Returns the index in _items of the item that is K-th in removal
+     * order.
+     */
+    private int position(int k) {
+        int p = _lifo ? _head + _size - 1 - k : _head + k;
+        return p & (_items.length - 1);
+    }
+
+    /**
+     * Double the length of _items, moving my items to its start.
+     */
+    private void grow() {
+        int n = _items.length;
+        int[] items = new int[2 * n];
+        System.arraycopy(_items, _head, items, 0, n - _head);
+        System.arraycopy(_items, 0, items, n - _head, _head);
+        _items = items;
+        _head = 0;
+    }
+
+    /**
+     * Initial length of _items (a power of 2).
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * True iff I remove my most recently added item first.
+     */
+    private final boolean _lifo;
+    /**
+     * My items, in positions _head through _head + _size - 1 modulo its
+     * length, which is always a power of 2.
+     */
+    private int[] _items = new int[INITIAL_CAPACITY];
+    /**
+     * Position in _items of my oldest item.
+     */
+    private int _head;
+    /**
+     * Number of items in me.
+     */
+    private int _size;
+}
@@ -3,6 +3,7 @@ package graph;
 /* See restrictions in Graph.java. */
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /** An Iteration<TYPE> is an Iterator<TYPE> that may also be used in a foreach
  *  loop.  That is, it implements the Iterable<TYPE> interface by simply
@@ -51,9 +52,74 @@ public abstract class Iteration<Type>
         return new SimpleIteration<>(it);
     }
 
+    /** An Iteration over a slice of an int array. */
+    private static class ArrayIteration extends IntIteration {
+        /** An iteration over ROW[FROM .. TO - 1]. */
+        ArrayIteration(int[] row, int from, int to) {
+            _row = row;
+            _k = from;
+            _end = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _k < _end;
+        }
+
+        @Override
+        public int nextInt() {
+            if (_k >= _end) {
+                throw new NoSuchElementException();
+            }
+            _k += 1;
+            return _row[_k - 1];
+        }
+
+        /** The array being iterated. */
+        private final int[] _row;
+        /** Index of the next element. */
+        private int _k;
+        /** One past the index of the last element. */
+        private final int _end;
+    }
+
+    /** Returns an IntIteration over ROW[FROM .. TO - 1]. */
+    static IntIteration iteration(int[] row, int from, int to) {
+        return new ArrayIteration(row, from, to);
+    }
+
+    /** Returns item K of ITEMS, numbering from 0, or 0 if there is
+     *  none, consuming ITEMS up to and including that item. */
+    static int item(IntIteration items, int k) {
+        if (k < 0) {
+            return 0;
+        }
+        for (int i = 0; items.hasNext(); i += 1) {
+            int w = items.nextInt();
+            if (i == k) {
+                return w;
+            }
+        }
+        return 0;
+    }
+
+    /** Returns the number of items remaining in ITEMS, consuming them. */
+    static int count(IntIteration items) {
+        int n = 0;
+        while (items.hasNext()) {
+            items.nextInt();
+            n += 1;
+        }
+        return n;
+    }
+
     /** Returns an Iteration<TYPE> that delegates to ITERABLE. */
     static <Type> Iteration<Type> iteration(Iterable<Type> iterable) {
         return new SimpleIteration<>(iterable.iterator());
     }
 
+    /** An IntIteration with no items, such as the row of a vertex that
+     *  is absent.  Having nothing to deliver, it may be shared. */
+    static final IntIteration EMPTY_INTS = iteration(new int[0], 0, 0);
+
 }
@@ -3,6 +3,9 @@ package graph;
 /* See restrictions in Graph.java. */
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.function.IntUnaryOperator;
 
 /** A Graph whose vertices are labeled with type VL and whose edges are
  *  labeled with type EL.
@@ -15,7 +18,21 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  G have undefined effects upon the labeled version created by this
      *  constructor. */
     public LabeledGraph(Graph G) {
+        this(G, new ArrayList<>(), new ArrayList<>(), new HashMap<>(),
+             new HashMap<>());
+    }
+
+    /** A labeling of G that uses VLABEL, ELABEL, VERTEXCOLUMNS and
+     *  EDGECOLUMNS as its labels and columns. */
+    private LabeledGraph(Graph G, ArrayList<VL> vlabel,
+                         ArrayList<EL> elabel,
+                         HashMap<String, DoubleColumn> vertexColumns,
+                         HashMap<String, DoubleColumn> edgeColumns) {
         super(G);
+        _vlabel = vlabel;
+        _elabel = elabel;
+        _vertexColumns = vertexColumns;
+        _edgeColumns = edgeColumns;
     }
 
     /** Returns the label on vertex V, which must be one of my
@@ -77,9 +94,123 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         return e;
     }
 
+    /** Returns my column of per-vertex values named NAME, indexed by
+     *  vertex number, creating an empty one if there is none. */
+    public DoubleColumn vertexColumn(String name) {
+        return _vertexColumns.computeIfAbsent(name,
+                                              k -> DoubleColumn.create());
+    }
+
+    /** Returns my column of per-edge values named NAME, indexed by edge
+     *  id, creating an empty one if there is none. */
+    public DoubleColumn edgeColumn(String name) {
+        return _edgeColumns.computeIfAbsent(name, k -> DoubleColumn.create());
+    }
+
+    /** Make COLUMN my per-vertex column named NAME. */
+    public void setVertexColumn(String name, DoubleColumn column) {
+        _vertexColumns.put(name, column);
+    }
+
+    /** Make COLUMN my per-edge column named NAME.  It must be indexed by
+     *  my edge ids. */
+    public void setEdgeColumn(String name, DoubleColumn column) {
+        _edgeColumns.put(name, column);
+    }
+
+    /** Returns the value of the edge (U, V), which must be one of my
+     *  edges, in my per-edge column COLUMN. */
+    public double getValue(DoubleColumn column, int u, int v) {
+        int e = edgeId(u, v);
+        if (e == 0) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        return column.get(e);
+    }
+
+    /** Set the value of the edge (U, V), which must be one of my edges,
+     *  in my per-edge column COLUMN to X.  Values are not cleared when
+     *  edges are removed, so an edge that reuses the id of a removed one
+     *  should be given a value. */
+    public void setValue(DoubleColumn column, int u, int v, double x) {
+        int e = edgeId(u, v);
+        if (e == 0) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        column.set(e, x);
+    }
+
+    /** Returns an immutable copy of me, as for Graph.freeze(), carrying
+     *  the same vertex and edge labels and copies of my columns. */
+    @Override
+    public LabeledGraph<VL, EL> freeze() {
+        LabeledGraph<VL, EL> result = new LabeledGraph<>(super.freeze());
+        for (int v : vertices()) {
+            VL lab = getLabel(v);
+            if (lab != null) {
+                result.setLabel(v, lab);
+            }
+        }
+        for (int[] e : edges()) {
+            EL lab = getLabel(e[0], e[1]);
+            if (lab != null) {
+                result.setLabel(e[0], e[1], lab);
+            }
+        }
+        copyColumns(result, v -> v);
+        return result;
+    }
+
+    /** Returns the names of my per-vertex columns. */
+    Set<String> vertexColumnNames() {
+        return _vertexColumns.keySet();
+    }
+
+    /** Returns the names of my per-edge columns. */
+    Set<String> edgeColumnNames() {
+        return _edgeColumns.keySet();
+    }
+
+    /** Copy my columns into new heap columns of RESULT, which has my
+     *  edges with each vertex V renumbered NEWID(V). */
+    void copyColumns(LabeledGraph<?, ?> result, IntUnaryOperator newId) {
+        for (String name : vertexColumnNames()) {
+            DoubleColumn from = vertexColumn(name),
+                to = DoubleColumn.create();
+            for (IntIteration v = vertexInts(); v.hasNext();) {
+                int v0 = v.nextInt();
+                to.set(newId.applyAsInt(v0), from.get(v0));
+            }
+            result.setVertexColumn(name, to);
+        }
+        for (String name : edgeColumnNames()) {
+            DoubleColumn from = edgeColumn(name), to = DoubleColumn.create();
+            for (int[] e : edges()) {
+                to.set(result.edgeId(newId.applyAsInt(e[0]),
+                                     newId.applyAsInt(e[1])),
+                       from.get(edgeId(e[0], e[1])));
+            }
+            result.setEdgeColumn(name, to);
+        }
+    }
+
     @Override
     public void remove(int v) {
+        ArrayList<Integer> incident = new ArrayList<>();
+        if (contains(v)) {
+            for (int w : successors(v)) {
+                incident.add(edgeId(v, w));
+            }
+            for (int u : predecessors(v)) {
+                incident.add(edgeId(u, v));
+            }
+        }
         super.remove(v);
+        for (int e : incident) {
+            if (e < _elabel.size()) {
+                _elabel.set(e, null);
+            }
+        }
         if (v < _vlabel.size()) {
             _vlabel.set(v, null);
         }
@@ -96,6 +227,20 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         }
     }
 
+    /** Returns a labeling of the read view of my underlying graph that
+     *  shares my labels and columns, or me if that view is my underlying
+     *  graph itself.  The structure of the result does not change, but
+     *  its labels and columns are mine, and so do. */
+    @Override
+    LabeledGraph<VL, EL> readView() {
+        Graph view = super.readView();
+        if (view == this) {
+            return this;
+        }
+        return new LabeledGraph<>(view, _vlabel, _elabel, _vertexColumns,
+                                  _edgeColumns);
+    }
+
     /** If necessary, add nulls to L to make its length N.  Has no effect if
      *  L's length is already at least N. */
     static void expand(ArrayList<?> L, int n) {
@@ -105,7 +250,11 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
     }
 
     /** Mapping of vertex numbers to vertex labels. */
-    private final ArrayList<VL> _vlabel = new ArrayList<>();
+    private final ArrayList<VL> _vlabel;
     /** Mapping of unique edge ids to edge labels. */
-    private final ArrayList<EL> _elabel = new ArrayList<>();
+    private final ArrayList<EL> _elabel;
+    /** Per-vertex columns, by name. */
+    private final HashMap<String, DoubleColumn> _vertexColumns;
+    /** Per-edge columns, by name. */
+    private final HashMap<String, DoubleColumn> _edgeColumns;
 }
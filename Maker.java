@@ -1,6 +1,9 @@
 package make;
 
+import graph.BreadthFirstTraversal;
+import graph.Components;
 import graph.DepthFirstTraversal;
+import graph.GraphBuilder;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -93,6 +96,7 @@ class Maker {
             error("error File not found");
         }
 
+        _dependencies = new GraphBuilder(true);
         while (inp.hasNextLine()) {
             String line = inp.nextLine();
             Matcher parsed;
@@ -126,6 +130,9 @@ class Maker {
             }
         }
         addRule(target, dependencies, commands);
+        _dependencies.addTo(_depends);
+        _dependencies = null;
+        _cycles = null;
     }
 
     /**
@@ -149,7 +156,7 @@ class Maker {
                 Rule depRule = addRule(dependency,
                         Collections.emptySet(),
                         Collections.emptyList());
-                rule.addDependency(depRule);
+                _dependencies.add(rule.getVertex(), depRule.getVertex());
             }
             rule.addCommands(commands);
             return rule;
@@ -165,6 +172,7 @@ class Maker {
         Rule targetRule = addRule(target, Collections.emptySet(),
                 Collections.emptyList());
         int v = targetRule.getVertex();
+        checkCycles(v);
         if (_traversal == null) {
             _traversal = new MakeTraversal();
             _traversal.traverse(v);
@@ -173,6 +181,20 @@ class Maker {
         }
     }
 
+    /**
+     * Report, as a single error, every circular dependency among the
+     * targets on which the target at vertex V depends, if there are any.
+     */
+    private void checkCycles(int v) {
+        if (_cycles == null) {
+            _cycles = new CycleTraversal();
+        }
+        List<String> cycles = _cycles.find(v);
+        if (!cycles.isEmpty()) {
+            error("Error: circular dependency: %s", String.join("; ", cycles));
+        }
+    }
+
     /**
      * Return my dependence graph.
      */
@@ -212,10 +234,19 @@ class Maker {
      * Mapping of target names to their Rules.
      */
     private HashMap<String, Rule> _targets = new HashMap<>();
+    /**
+     * While reading a makefile, the dependence edges read so far.
+     */
+    private GraphBuilder _dependencies;
     /**
      * Depth-first traversal of my vertices.
      */
     private MakeTraversal _traversal;
+    /**
+     * Finder of circular dependencies in _depends, or null if not yet
+     * created for its current contents.
+     */
+    private CycleTraversal _cycles;
 
     /**
      * Traversal for make dependency graph.
@@ -230,15 +261,64 @@ class Maker {
 
         @Override
         protected boolean postVisit(int v0) {
-            for (int successor : _depends.successors(v0)) {
-                if (marked(successor) && !_depends.contains(successor)) {
-                    error("error: circular dependency");
-                }
-            }
             _depends.getLabel(v0).rebuild();
             return true;
         }
 
 
     }
+
+    /**
+     * Traversal that finds the circular dependencies below a target.
+     */
+    class CycleTraversal extends BreadthFirstTraversal {
+        /**
+         * A traversal of my dependency graph, whose strongly connected
+         * components are computed once, here.
+         */
+        CycleTraversal() {
+            super(_depends);
+            _components = Components.strong(_depends);
+        }
+
+        /**
+         * Returns the targets of each strongly connected component that
+         * forms a cycle and is reachable from vertex V, as one
+         * space-separated string per component.
+         */
+        List<String> find(int v) {
+            clear();
+            _seen.clear();
+            _found = new ArrayList<>();
+            traverse(v);
+            return _found;
+        }
+
+        @Override
+        protected boolean visit(int w) {
+            int c = _components.component(w);
+            if (c != 0 && _seen.add(c)
+                && (_components.size(c) > 1 || _depends.contains(w, w))) {
+                ArrayList<String> targets = new ArrayList<>();
+                for (int u : _components.members(c)) {
+                    targets.add(_depends.getLabel(u).getTarget());
+                }
+                _found.add(String.join(" ", targets));
+            }
+            return true;
+        }
+
+        /**
+         * Strongly connected components of my graph.
+         */
+        private final Components _components;
+        /**
+         * Components already examined by the current search.
+         */
+        private final HashSet<Integer> _seen = new HashSet<>();
+        /**
+         * Cycles found by the current search.
+         */
+        private ArrayList<String> _found;
+    }
 }
@@ -0,0 +1,314 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * An immutable graph in compressed-sparse-row form whose arrays live in
+ * a memory-mapped file rather than on the heap.  Opening one costs only
+ * the mapping itself; pages are read on demand by the operating system
+ * and are shared among all processes that map the same file.  A
+ * MappedGraph has the same vertices, edges, edge ids and iteration
+ * orders as the result of freeze() on the graph it was written from, so
+ * it may be labeled, traversed and searched like any other Graph.
+ * <p>
+ * The file is a header of HEADER_SIZE little-endian ints followed by the
+ * arrays of the packed graph.  Each array is mapped separately, and so
+ * is limited to MAX_ENTRIES (2^29 - 1) entries: a graph may have at
+ * most that many edges, vertex numbers and, counting each undirected
+ * edge twice, row entries.  write() rejects larger graphs before
+ * writing anything.  It streams the rows of the graph into the file
+ * and needs no heap space proportional to its size.
+ */
+public final class MappedGraph extends PackedGraph {
+
+    /**
+     * Write a packed image of G to FILE, replacing any previous contents.
+     * The image is written one row at a time through a mapping of FILE,
+     * so that no copy of G is built on the heap.  Throws
+     * IllegalArgumentException if any array of the image would have
+     * more than MAX_ENTRIES entries.
+     */
+    public static void write(Graph G, Path file) throws IOException {
+        int maxVertex = G.maxVertex(), edgeSize = G.edgeSize(),
+            idLimit = G.edgeIdLimit();
+        long entries = 0;
+        for (IntIteration v = G.vertexInts(); v.hasNext(); ) {
+            entries += G.outDegree(v.nextInt());
+        }
+        if (Math.max(entries, maxVertex + 2L) > MAX_ENTRIES
+            || Math.max(edgeSize, idLimit) + 1L > MAX_ENTRIES) {
+            throw new IllegalArgumentException("graph too large to map");
+        }
+        try (FileChannel out = FileChannel.open(file, CREATE, READ, WRITE,
+                                                TRUNCATE_EXISTING)) {
+            IntBuffer header = map(out, HEADER_SIZE, READ_WRITE);
+            header.put(MAGIC).put(VERSION).put(G.isDirected() ? 1 : 0)
+                .put(maxVertex).put(G.vertexSize()).put(edgeSize)
+                .put((int) entries).put(idLimit);
+            IntBuffer present = map(out, maxVertex + 1, READ_WRITE);
+            for (int v = 1; v <= maxVertex; v += 1) {
+                present.put(v, G.contains(v) ? 1 : 0);
+            }
+            writeRows(G, out, (int) entries, true);
+            if (G.isDirected()) {
+                writeRows(G, out, edgeSize, false);
+            }
+            IntBuffer order = map(out, edgeSize + 1, READ_WRITE),
+                edgeU = map(out, idLimit + 1, READ_WRITE),
+                edgeV = map(out, idLimit + 1, READ_WRITE);
+            int k = 0;
+            for (int[] edge : G.edges()) {
+                int e = G.edgeId(edge[0], edge[1]);
+                k += 1;
+                order.put(k, e);
+                edgeU.put(e, edge[0]);
+                edgeV.put(e, edge[1]);
+            }
+        }
+    }
+
+    /**
+     * Append to OUT the row starts and then the N row entries of G's
+     * successor rows, followed by the edge ids of those entries, if
+     * SUCCESSORS, and otherwise those of its predecessor rows.
+     */
+    private static void writeRows(Graph G, FileChannel out, int n,
+                                  boolean successors) throws IOException {
+        int maxVertex = G.maxVertex();
+        IntBuffer start = map(out, maxVertex + 2, READ_WRITE),
+            row = map(out, n, READ_WRITE),
+            ids = successors ? map(out, n, READ_WRITE) : null;
+        int k = 0;
+        for (int v = 1; v <= maxVertex; v += 1) {
+            start.put(v, k);
+            if (!G.contains(v)) {
+                continue;
+            }
+            IntIteration next =
+                successors ? G.successorInts(v) : G.predecessorInts(v);
+            while (next.hasNext()) {
+                int w = next.nextInt();
+                row.put(k, w);
+                if (successors) {
+                    ids.put(k, G.edgeId(v, w));
+                }
+                k += 1;
+            }
+        }
+        start.put(maxVertex + 1, k);
+    }
+
+    /**
+     * Returns the graph stored in FILE by write.
+     */
+    public static MappedGraph open(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, READ)) {
+            return new MappedGraph(in);
+        }
+    }
+
+    /**
+     * A graph mapped from IN, which is positioned at its start.
+     */
+    private MappedGraph(FileChannel in) throws IOException {
+        IntBuffer header = map(in, HEADER_SIZE, READ_ONLY);
+        if (header.get(0) != MAGIC || header.get(1) != VERSION) {
+            throw new IOException("not a mapped graph file");
+        }
+        _directed = header.get(2) != 0;
+        _maxVertex = header.get(3);
+        _vertexSize = header.get(4);
+        _edgeSize = header.get(5);
+        int entries = header.get(6);
+        _edgeIdLimit = header.get(7);
+        _present = map(in, _maxVertex + 1, READ_ONLY);
+        _outStart = map(in, _maxVertex + 2, READ_ONLY);
+        _outTargets = map(in, entries, READ_ONLY);
+        _outIds = map(in, entries, READ_ONLY);
+        if (_directed) {
+            _inStart = map(in, _maxVertex + 2, READ_ONLY);
+            _inSources = map(in, _edgeSize, READ_ONLY);
+        } else {
+            _inStart = _outStart;
+            _inSources = _outTargets;
+        }
+        _order = map(in, _edgeSize + 1, READ_ONLY);
+        _edgeU = map(in, _edgeIdLimit + 1, READ_ONLY);
+        _edgeV = map(in, _edgeIdLimit + 1, READ_ONLY);
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexSize;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    boolean present(int v) {
+        return _present.get(v) != 0;
+    }
+
+    @Override
+    int outStart(int v) {
+        return _outStart.get(v);
+    }
+
+    @Override
+    int outTarget(int k) {
+        return _outTargets.get(k);
+    }
+
+    @Override
+    int outId(int k) {
+        return _outIds.get(k);
+    }
+
+    @Override
+    int inStart(int v) {
+        return _inStart.get(v);
+    }
+
+    @Override
+    int inSource(int k) {
+        return _inSources.get(k);
+    }
+
+    @Override
+    int edgeAt(int k) {
+        return _order.get(k);
+    }
+
+    @Override
+    int edgeIdLimit() {
+        return _edgeIdLimit;
+    }
+
+    @Override
+    int edgeU(int e) {
+        return _edgeU.get(e);
+    }
+
+    @Override
+    int edgeV(int e) {
+        return _edgeV.get(e);
+    }
+
+    /**
+     * Map the next N ints of IN in mode MODE, advancing its position past
+     * them.  A READ_WRITE mapping extends IN as necessary.
+     */
+    private static IntBuffer map(FileChannel in, int n, MapMode mode)
+        throws IOException {
+        long size = (long) n * Integer.BYTES;
+        if (mode == READ_ONLY && in.position() + size > in.size()) {
+            throw new IOException("truncated mapped graph file");
+        }
+        IntBuffer result = in.map(mode, in.position(), size)
+            .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        in.position(in.position() + size);
+        return result;
+    }
+
+    /**
+     * First int of every mapped graph file.
+     */
+    private static final int MAGIC = 0x47524150;
+    /**
+     * Version of the file layout.
+     */
+    private static final int VERSION = 2;
+    /**
+     * Number of ints in the file header.
+     */
+    private static final int HEADER_SIZE = 8;
+    /**
+     * Maximum number of entries in an array of the file, which is the
+     * most that one mapping can hold.
+     */
+    public static final int MAX_ENTRIES = Integer.MAX_VALUE / Integer.BYTES;
+
+    /**
+     * True iff I am directed.
+     */
+    private final boolean _directed;
+    /**
+     * My maximum vertex number.
+     */
+    private final int _maxVertex;
+    /**
+     * Number of my vertices.
+     */
+    private final int _vertexSize;
+    /**
+     * Number of my edges.
+     */
+    private final int _edgeSize;
+    /**
+     * My largest edge id.
+     */
+    private final int _edgeIdLimit;
+    /**
+     * Entry V is 1 iff V is one of my vertices.
+     */
+    private final IntBuffer _present;
+    /**
+     * Start of each vertex's row in _outTargets and _outIds.
+     */
+    private final IntBuffer _outStart;
+    /**
+     * Successors of all vertices, row by row.
+     */
+    private final IntBuffer _outTargets;
+    /**
+     * Edge id of the corresponding entry of _outTargets.
+     */
+    private final IntBuffer _outIds;
+    /**
+     * Start of each vertex's row in _inSources.
+     */
+    private final IntBuffer _inStart;
+    /**
+     * Predecessors of all vertices, row by row.
+     */
+    private final IntBuffer _inSources;
+    /**
+     * Entry K is the id of the K-th edge in edges() order.
+     */
+    private final IntBuffer _order;
+    /**
+     * Source vertex of each edge, indexed by edge id.
+     */
+    private final IntBuffer _edgeU;
+    /**
+     * Target vertex of each edge, indexed by edge id.
+     */
+    private final IntBuffer _edgeV;
+}
@@ -0,0 +1,867 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A modifiable labeled graph recorded as a set of changes over an
+ * unchanging base graph, so that a large frozen graph may be edited
+ * without copying it.  Vertices and edges of the base that have not been
+ * removed keep their numbers, edge ids and labels; vertices, edges and
+ * labels added or changed are held in small side tables.  Queries on
+ * vertices whose edges have not been touched go straight to the base.
+ * <p>
+ * compact() produces, in the background, a new frozen base containing
+ * the current contents, over which a fresh overlay may be started.
+ * The base must not be modified while any overlay uses it.
+ */
+public class OverlayGraph<VL, EL> extends LabeledGraph<VL, EL> {
+
+    /**
+     * An overlay with no changes over BASE.
+     */
+    public OverlayGraph(LabeledGraph<VL, EL> base) {
+        this(base, new Delta(base));
+    }
+
+    /**
+     * An overlay of the changes DELTA over BASE, with no label changes.
+     */
+    private OverlayGraph(LabeledGraph<VL, EL> base, Delta delta) {
+        super(delta);
+        _base = base;
+        _delta = delta;
+    }
+
+    @Override
+    public VL getLabel(int v) {
+        checkMyVertex(v);
+        if (_vertexLabels.containsKey(v)) {
+            return _vertexLabels.get(v);
+        }
+        return _delta.inBase(v) ? _base.getLabel(v) : null;
+    }
+
+    @Override
+    public EL getLabel(int u, int v) {
+        int e = edgeId(u, v);
+        if (e == 0) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        if (_edgeLabels.containsKey(e)) {
+            return _edgeLabels.get(e);
+        }
+        return _delta.isBaseId(e) ? _base.getLabel(u, v) : null;
+    }
+
+    @Override
+    public void setLabel(int v, VL lab) {
+        checkMyVertex(v);
+        _vertexLabels.put(v, lab);
+    }
+
+    @Override
+    public void setLabel(int u, int v, EL lab) {
+        int e = edgeId(u, v);
+        if (e == 0) {
+            throw new IllegalArgumentException("no such edge");
+        }
+        _edgeLabels.put(e, lab);
+    }
+
+    @Override
+    public int add(int u, int v, EL lab) {
+        int e = add(u, v);
+        if (e != 0) {
+            _edgeLabels.put(e, lab);
+        }
+        return e;
+    }
+
+    @Override
+    public void remove(int v) {
+        if (!contains(v)) {
+            return;
+        }
+        if (!_edgeLabels.isEmpty()) {
+            for (IntIteration w = successorInts(v); w.hasNext();) {
+                _edgeLabels.remove(edgeId(v, w.nextInt()));
+            }
+            for (IntIteration u = predecessorInts(v); u.hasNext();) {
+                _edgeLabels.remove(edgeId(u.nextInt(), v));
+            }
+        }
+        _delta.remove(v);
+        _vertexLabels.remove(v);
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        int e = edgeId(u, v);
+        if (e != 0) {
+            _delta.remove(u, v);
+            _edgeLabels.remove(e);
+        }
+    }
+
+    /**
+     * Returns my per-vertex column named NAME.  If the base has such a
+     * column, mine reads through to it for vertices of the base, and
+     * values I set are held separately.
+     */
+    @Override
+    public DoubleColumn vertexColumn(String name) {
+        if (!super.vertexColumnNames().contains(name)
+            && _base.vertexColumnNames().contains(name)) {
+            setVertexColumn(name,
+                            new LayeredColumn(_base.vertexColumn(name), true,
+                                              _delta));
+        }
+        return super.vertexColumn(name);
+    }
+
+    /**
+     * Returns my per-edge column named NAME, layered over the base's
+     * column of that name, if any, as for vertexColumn.
+     */
+    @Override
+    public DoubleColumn edgeColumn(String name) {
+        if (!super.edgeColumnNames().contains(name)
+            && _base.edgeColumnNames().contains(name)) {
+            setEdgeColumn(name,
+                          new LayeredColumn(_base.edgeColumn(name), false,
+                                            _delta));
+        }
+        return super.edgeColumn(name);
+    }
+
+    @Override
+    Set<String> vertexColumnNames() {
+        Set<String> names = new HashSet<>(super.vertexColumnNames());
+        names.addAll(_base.vertexColumnNames());
+        return names;
+    }
+
+    @Override
+    Set<String> edgeColumnNames() {
+        Set<String> names = new HashSet<>(super.edgeColumnNames());
+        names.addAll(_base.edgeColumnNames());
+        return names;
+    }
+
+    /**
+     * Returns a future for a frozen labeled graph with my current
+     * vertices, edges and labels, as for freeze(), computed in another
+     * thread from a copy of my current changes.  Later changes to me do
+     * not affect the result.
+     */
+    public CompletableFuture<LabeledGraph<VL, EL>> compact() {
+        OverlayGraph<VL, EL> copy =
+            new OverlayGraph<>(_base, new Delta(_delta));
+        copy._vertexLabels.putAll(_vertexLabels);
+        copy._edgeLabels.putAll(_edgeLabels);
+        for (String name : super.vertexColumnNames()) {
+            copy.setVertexColumn(name, copy.copyOf(vertexColumn(name)));
+        }
+        for (String name : super.edgeColumnNames()) {
+            copy.setEdgeColumn(name, copy.copyOf(edgeColumn(name)));
+        }
+        return CompletableFuture.supplyAsync(copy::freeze);
+    }
+
+    /**
+     * Returns a copy of COLUMN, one of the columns of an overlay with the
+     * same base and changes as mine, whose layered columns read through
+     * to the base according to my changes.
+     */
+    private DoubleColumn copyOf(DoubleColumn column) {
+        if (column instanceof LayeredColumn) {
+            LayeredColumn layered = (LayeredColumn) column;
+            LayeredColumn result =
+                new LayeredColumn(layered._under, layered._vertices, _delta);
+            result._own.putAll(layered._own);
+            return result;
+        }
+        DoubleColumn result = DoubleColumn.create();
+        for (int k = 0; k < column.size(); k += 1) {
+            result.set(k, column.get(k));
+        }
+        return result;
+    }
+
+    /**
+     * A column holding the values set through an overlay, and otherwise
+     * reading those of the vertices or edges of the base.
+     */
+    private static class LayeredColumn extends DoubleColumn {
+        /**
+         * A column over UNDER, a per-vertex column of the base of DELTA
+         * if VERTICES, and otherwise a per-edge one.
+         */
+        LayeredColumn(DoubleColumn under, boolean vertices, Delta delta) {
+            _under = under;
+            _vertices = vertices;
+            _delta = delta;
+        }
+
+        @Override
+        public double get(int k) {
+            if (!_own.isEmpty()) {
+                Double x = _own.get(k);
+                if (x != null) {
+                    return x;
+                }
+            }
+            if (_vertices ? _delta.inBase(k) : _delta.isBaseId(k)) {
+                return _under.get(k);
+            }
+            return 0.0;
+        }
+
+        @Override
+        public void set(int k, double x) {
+            if (k < 0) {
+                throw new IllegalArgumentException("negative index");
+            }
+            _own.put(k, x);
+        }
+
+        @Override
+        public int size() {
+            int size = _under.size();
+            for (int k : _own.keySet()) {
+                size = Math.max(size, k + 1);
+            }
+            return size;
+        }
+
+        /**
+         * The base's column.
+         */
+        private final DoubleColumn _under;
+        /**
+         * True iff indexed by vertex number.
+         */
+        private final boolean _vertices;
+        /**
+         * The changes determining which entries are read from _under.
+         */
+        private final Delta _delta;
+        /**
+         * Values set through me, by index.
+         */
+        private final HashMap<Integer, Double> _own = new HashMap<>();
+    }
+
+    /**
+     * The structural changes to a base graph.  Edges of the base keep
+     * their ids; added edges get ids above all of those of the base.
+     */
+    private static final class Delta extends Graph {
+
+        /**
+         * No changes to BASE.
+         */
+        Delta(Graph base) {
+            _base = base;
+            _baseEdgeLimit = base.edgeIdLimit();
+            for (IntIteration v = base.vertexInts(); v.hasNext();) {
+                _live.set(v.nextInt());
+            }
+            _vertexSize = base.vertexSize();
+            _edgeSize = base.edgeSize();
+        }
+
+        /**
+         * A copy of the changes in D.
+         */
+        Delta(Delta d) {
+            _base = d._base;
+            _baseEdgeLimit = d._baseEdgeLimit;
+            _live.or(d._live);
+            _removedVertices.or(d._removedVertices);
+            _removedEdges.or(d._removedEdges);
+            _touched.or(d._touched);
+            _addedIds = new IntPairMap(d._addedIds);
+            _addedU = d._addedU.clone();
+            _addedV = d._addedV.clone();
+            _addedSlots.or(d._addedSlots);
+            copyRows(d._addedOut, _addedOut);
+            copyRows(d._addedIn, _addedIn);
+            _vertexSize = d._vertexSize;
+            _edgeSize = d._edgeSize;
+        }
+
+        /**
+         * Returns true iff V is a vertex of the base that has not been
+         * removed (though it may have been added again since).
+         */
+        boolean inBase(int v) {
+            return _base.contains(v) && !_removedVertices.get(v);
+        }
+
+        /**
+         * Returns true iff edge id E belongs to an edge of the base.
+         */
+        boolean isBaseId(int e) {
+            return e <= _baseEdgeLimit;
+        }
+
+        @Override
+        public int vertexSize() {
+            return _vertexSize;
+        }
+
+        @Override
+        public int maxVertex() {
+            return Math.max(0, _live.length() - 1);
+        }
+
+        @Override
+        public int edgeSize() {
+            return _edgeSize;
+        }
+
+        @Override
+        public boolean isDirected() {
+            return _base.isDirected();
+        }
+
+        @Override
+        public int outDegree(int v) {
+            if (!containcheck(v)) {
+                return 0;
+            }
+            return baseDegree(v, true) + size(_addedOut.get(v));
+        }
+
+        @Override
+        public int inDegree(int v) {
+            if (!isDirected()) {
+                return outDegree(v);
+            } else if (!containcheck(v)) {
+                return 0;
+            }
+            return baseDegree(v, false) + size(_addedIn.get(v));
+        }
+
+        @Override
+        public boolean contains(int u) {
+            return containcheck(u);
+        }
+
+        @Override
+        public boolean contains(int u, int v) {
+            return edgeId(u, v) != 0;
+        }
+
+        @Override
+        public int add() {
+            int v = _live.nextClearBit(1);
+            _live.set(v);
+            _vertexSize += 1;
+            return v;
+        }
+
+        @Override
+        public int add(int u, int v) {
+            if (containcheck(u) && containcheck(v) && !contains(u, v)) {
+                int slot = _addedSlots.nextClearBit(0);
+                _addedSlots.set(slot);
+                if (slot == _addedU.length) {
+                    _addedU = Arrays.copyOf(_addedU, 2 * slot);
+                    _addedV = Arrays.copyOf(_addedV, 2 * slot);
+                }
+                _addedU[slot] = u;
+                _addedV[slot] = v;
+                _addedIds.put(low(u, v), high(u, v), slot);
+                row(_addedOut, u).add(v);
+                if (isDirected()) {
+                    row(_addedIn, v).add(u);
+                } else if (u != v) {
+                    row(_addedOut, v).add(u);
+                }
+                _edgeSize += 1;
+            }
+            return edgeId(u, v);
+        }
+
+        @Override
+        public void remove(int v) {
+            if (!containcheck(v)) {
+                return;
+            }
+            if (inBase(v)) {
+                for (IntIteration w = baseRow(v, true); w.hasNext();) {
+                    _touched.set(w.nextInt());
+                    _edgeSize -= 1;
+                }
+                if (isDirected()) {
+                    for (IntIteration u = baseRow(v, false); u.hasNext();) {
+                        int u0 = u.nextInt();
+                        _touched.set(u0);
+                        if (u0 != v) {
+                            _edgeSize -= 1;
+                        }
+                    }
+                }
+                _removedVertices.set(v);
+            }
+            Row out = _addedOut.get(v);
+            while (out != null && out._size > 0) {
+                removeAdded(v, out._items[out._size - 1]);
+            }
+            Row in = _addedIn.get(v);
+            while (in != null && in._size > 0) {
+                removeAdded(in._items[in._size - 1], v);
+            }
+            _addedOut.remove(v);
+            _addedIn.remove(v);
+            _live.clear(v);
+            _vertexSize -= 1;
+        }
+
+        @Override
+        public void remove(int u, int v) {
+            int e = baseId(u, v);
+            if (e != 0) {
+                _removedEdges.set(e);
+                _touched.set(u);
+                _touched.set(v);
+                _edgeSize -= 1;
+            } else if (_addedIds.get(low(u, v), high(u, v)) >= 0) {
+                removeAdded(u, v);
+            }
+        }
+
+        @Override
+        public Iteration<Integer> vertices() {
+            return vertexInts();
+        }
+
+        @Override
+        public IntIteration vertexInts() {
+            return new IntIteration() {
+                @Override
+                public boolean hasNext() {
+                    return _v > 0;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (_v <= 0) {
+                        throw new NoSuchElementException();
+                    }
+                    int v = _v;
+                    _v = _live.nextSetBit(v + 1);
+                    return v;
+                }
+
+                /** The next vertex, or a negative value if none. */
+                private int _v = _live.nextSetBit(1);
+            };
+        }
+
+        @Override
+        public int successor(int v, int k) {
+            if (containcheck(v) && inBase(v) && !_touched.get(v)) {
+                int d = _base.outDegree(v);
+                if (k < d) {
+                    return _base.successor(v, k);
+                }
+                return item(_addedOut.get(v), k - d);
+            }
+            return Iteration.item(successorInts(v), k);
+        }
+
+        @Override
+        public int predecessor(int v, int k) {
+            if (!isDirected()) {
+                return successor(v, k);
+            } else if (containcheck(v) && inBase(v) && !_touched.get(v)) {
+                int d = _base.inDegree(v);
+                if (k < d) {
+                    return _base.predecessor(v, k);
+                }
+                return item(_addedIn.get(v), k - d);
+            }
+            return Iteration.item(predecessorInts(v), k);
+        }
+
+        @Override
+        public Iteration<Integer> successors(int v) {
+            return successorInts(v);
+        }
+
+        @Override
+        public Iteration<Integer> predecessors(int v) {
+            return predecessorInts(v);
+        }
+
+        @Override
+        public IntIteration successorInts(int v) {
+            return concat(baseRow(v, true), _addedOut.get(v));
+        }
+
+        @Override
+        public IntIteration predecessorInts(int v) {
+            if (!isDirected()) {
+                return successorInts(v);
+            }
+            return concat(baseRow(v, false), _addedIn.get(v));
+        }
+
+        @Override
+        public Iteration<int[]> edges() {
+            Iteration<int[]> base = _base.edges();
+            return new Iteration<int[]>() {
+                @Override
+                public boolean hasNext() {
+                    while (_next == null && base.hasNext()) {
+                        int[] e = base.next();
+                        if (inBase(e[0]) && inBase(e[1])
+                            && (_removedEdges.isEmpty()
+                                || !_removedEdges.get(
+                                       _base.edgeId(e[0], e[1])))) {
+                            _next = e;
+                        }
+                    }
+                    if (_next == null) {
+                        _slot = _addedSlots.nextSetBit(_slot);
+                        if (_slot >= 0) {
+                            _edge[0] = _addedU[_slot];
+                            _edge[1] = _addedV[_slot];
+                            _slot += 1;
+                            _next = _edge;
+                        }
+                    }
+                    return _next != null;
+                }
+
+                @Override
+                public int[] next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int[] result = _next;
+                    _next = null;
+                    return result;
+                }
+
+                /** The next edge to return, or null if not yet found. */
+                private int[] _next;
+                /** The next added edge slot to examine. */
+                private int _slot;
+                /** The array used to return added edges. */
+                private final int[] _edge = new int[2];
+            };
+        }
+
+        @Override
+        int edgeIdLimit() {
+            return _baseEdgeLimit + _addedU.length;
+        }
+
+        @Override
+        protected boolean containcheck(int v) {
+            return v > 0 && _live.get(v);
+        }
+
+        @Override
+        protected int edgeId(int u, int v) {
+            if (!containcheck(u) || !containcheck(v)) {
+                return 0;
+            }
+            int e = baseId(u, v);
+            if (e != 0) {
+                return e;
+            }
+            int slot = _addedIds.get(low(u, v), high(u, v));
+            return slot < 0 ? 0 : _baseEdgeLimit + slot + 1;
+        }
+
+        /**
+         * Returns the id of the base edge (U, V) if it is present and has
+         * not been removed, and otherwise 0.
+         */
+        private int baseId(int u, int v) {
+            if (!inBase(u) || !inBase(v)) {
+                return 0;
+            }
+            int e = _base.edgeId(u, v);
+            return e != 0 && _removedEdges.get(e) ? 0 : e;
+        }
+
+        /**
+         * Returns the remaining base successors of V if OUT, and
+         * otherwise its remaining base predecessors.
+         */
+        private IntIteration baseRow(int v, boolean out) {
+            if (!containcheck(v) || !inBase(v)) {
+                return Iteration.EMPTY_INTS;
+            }
+            IntIteration row =
+                out ? _base.successorInts(v) : _base.predecessorInts(v);
+            if (!_touched.get(v)) {
+                return row;
+            }
+            return new IntIteration() {
+                @Override
+                public boolean hasNext() {
+                    while (_next == 0 && row.hasNext()) {
+                        int w = row.nextInt();
+                        if (out ? baseId(v, w) != 0 : baseId(w, v) != 0) {
+                            _next = w;
+                        }
+                    }
+                    return _next != 0;
+                }
+
+                @Override
+                public int nextInt() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int w = _next;
+                    _next = 0;
+                    return w;
+                }
+
+                /** The next remaining vertex, or 0 if not yet found. */
+                private int _next;
+            };
+        }
+
+        /**
+         * Returns the number of remaining base successors of V if OUT,
+         * and otherwise its remaining base predecessors.
+         */
+        private int baseDegree(int v, boolean out) {
+            if (!inBase(v)) {
+                return 0;
+            } else if (!_touched.get(v)) {
+                return out ? _base.outDegree(v) : _base.inDegree(v);
+            }
+            int n = 0;
+            for (IntIteration row = baseRow(v, out); row.hasNext();) {
+                row.nextInt();
+                n += 1;
+            }
+            return n;
+        }
+
+        /**
+         * Remove the added edge (U, V).
+         */
+        private void removeAdded(int u, int v) {
+            int slot = _addedIds.remove(low(u, v), high(u, v));
+            _addedSlots.clear(slot);
+            _addedOut.get(u).remove(v);
+            if (isDirected()) {
+                _addedIn.get(v).remove(u);
+            } else if (u != v) {
+                _addedOut.get(v).remove(u);
+            }
+            _edgeSize -= 1;
+        }
+
+        /**
+         * Returns the first end point of (U, V) as a key of _addedIds.
+         */
+        private int low(int u, int v) {
+            return isDirected() ? u : Math.min(u, v);
+        }
+
+        /**
+         * Returns the second end point of (U, V) as a key of _addedIds.
+         */
+        private int high(int u, int v) {
+            return isDirected() ? v : Math.max(u, v);
+        }
+
+        /**
+         * The base graph.
+         */
+        private final Graph _base;
+        /**
+         * Upper bound on the edge ids of the base.
+         */
+        private final int _baseEdgeLimit;
+        /**
+         * My current vertices.
+         */
+        private final BitSet _live = new BitSet();
+        /**
+         * Vertices of the base that have been removed.  Their base edges
+         * are hidden even if their numbers are reused.
+         */
+        private final BitSet _removedVertices = new BitSet();
+        /**
+         * Ids of base edges that have been removed.
+         */
+        private final BitSet _removedEdges = new BitSet();
+        /**
+         * Vertices some of whose base edges are hidden.
+         */
+        private final BitSet _touched = new BitSet();
+        /**
+         * Slot of each added edge, keyed by (low, high) end points.
+         */
+        private IntPairMap _addedIds = new IntPairMap();
+        /**
+         * End points of the added edge in each slot, as given to add.
+         */
+        private int[] _addedU = new int[INITIAL_CAPACITY],
+            _addedV = new int[INITIAL_CAPACITY];
+        /**
+         * The set of occupied slots.
+         */
+        private final BitSet _addedSlots = new BitSet();
+        /**
+         * Added successors of each vertex (and added predecessors, if
+         * undirected).
+         */
+        private final HashMap<Integer, Row> _addedOut = new HashMap<>();
+        /**
+         * Added predecessors of each vertex of a directed graph.
+         */
+        private final HashMap<Integer, Row> _addedIn = new HashMap<>();
+        /**
+         * Number of my vertices.
+         */
+        private int _vertexSize;
+        /**
+         * Number of my edges.
+         */
+        private int _edgeSize;
+    }
+
+    /**
+     * A growable list of vertices, in the order added.
+     */
+    private static final class Row {
+        /**
+         * Append V.
+         */
+        void add(int v) {
+            if (_size == _items.length) {
+                _items = Arrays.copyOf(_items, 2 * _size);
+            }
+            _items[_size] = v;
+            _size += 1;
+        }
+
+        /**
+         * Remove V, which must be present, preserving order.
+         */
+        void remove(int v) {
+            int k;
+            for (k = 0; _items[k] != v; k += 1) {
+                continue;
+            }
+            System.arraycopy(_items, k + 1, _items, k, _size - k - 1);
+            _size -= 1;
+        }
+
+        /**
+         * Items of the row, in the first _size elements.
+         */
+        private int[] _items = new int[INITIAL_DEGREE];
+        /**
+         * Number of items.
+         */
+        private int _size;
+    }
+
+    /**
+     * Returns the Row of V in ROWS, creating it if needed.
+     */
+    private static Row row(HashMap<Integer, Row> rows, int v) {
+        return rows.computeIfAbsent(v, k -> new Row());
+    }
+
+    /**
+     * Store copies of the rows in FROM into TO.
+     */
+    private static void copyRows(HashMap<Integer, Row> from,
+                                 HashMap<Integer, Row> to) {
+        for (Map.Entry<Integer, Row> entry : from.entrySet()) {
+            Row r = new Row();
+            r._items = entry.getValue()._items.clone();
+            r._size = entry.getValue()._size;
+            to.put(entry.getKey(), r);
+        }
+    }
+
+    /**
+     * Returns the number of items in ROW, or 0 if it is null.
+     */
+    private static int size(Row row) {
+        return row == null ? 0 : row._size;
+    }
+
+    /**
+     * Returns item K of ROW, or 0 if there is none.
+     */
+    private static int item(Row row, int k) {
+        return k >= 0 && k < size(row) ? row._items[k] : 0;
+    }
+
+    /**
+     * Returns an iteration over the items of FIRST followed by those of
+     * SECOND, which may be null.
+     */
+    private static IntIteration concat(IntIteration first, Row second) {
+        if (size(second) == 0) {
+            return first;
+        }
+        IntIteration rest =
+            Iteration.iteration(second._items, 0, second._size);
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                return first.hasNext() || rest.hasNext();
+            }
+
+            @Override
+            public int nextInt() {
+                return first.hasNext() ? first.nextInt() : rest.nextInt();
+            }
+        };
+    }
+
+    /**
+     * Initial length of the added-edge arrays.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    /**
+     * Initial length of a Row.
+     */
+    private static final int INITIAL_DEGREE = 2;
+
+    /**
+     * The labeled base graph.
+     */
+    private final LabeledGraph<VL, EL> _base;
+    /**
+     * My structural changes to _base.
+     */
+    private final Delta _delta;
+    /**
+     * Vertex labels set since the base, including nulls; these override
+     * the labels of the base.
+     */
+    private final HashMap<Integer, VL> _vertexLabels = new HashMap<>();
+    /**
+     * Edge labels set since the base, keyed by edge id.
+     */
+    private final HashMap<Integer, EL> _edgeLabels = new HashMap<>();
+}
@@ -0,0 +1,283 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.NoSuchElementException;
+
+/**
+ * A partial implementation of an immutable Graph stored in
+ * compressed-sparse-row form.  The successors of vertex V are entries
+ * outStart(V) .. outStart(V + 1) - 1 of the successor array, in the order
+ * in which their edges were added, and likewise for predecessors.  Edge
+ * ids lie in 1 .. edgeIdLimit(), and edgeAt(K) is the id of the K-th edge
+ * listed by edges().  Subclasses supply the storage through
+ * the package-private accessors; all operations that would modify the
+ * graph throw UnsupportedOperationException.
+ */
+abstract class PackedGraph extends Graph {
+
+    @Override
+    public int outDegree(int v) {
+        if (!containcheck(v)) {
+            return 0;
+        }
+        return outStart(v + 1) - outStart(v);
+    }
+
+    @Override
+    public int inDegree(int v) {
+        if (!containcheck(v)) {
+            return 0;
+        }
+        return inStart(v + 1) - inStart(v);
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return containcheck(u);
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public void remove(int v) {
+        throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw new UnsupportedOperationException("graph is frozen");
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return vertexInts();
+    }
+
+    @Override
+    public IntIteration vertexInts() {
+        return new IntIteration() {
+            @Override
+            public boolean hasNext() {
+                while (_v <= maxVertex() && !present(_v)) {
+                    _v += 1;
+                }
+                return _v <= maxVertex();
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                _v += 1;
+                return _v - 1;
+            }
+
+            /** The next candidate vertex. */
+            private int _v = 1;
+        };
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        if (k < 0 || k >= outDegree(v)) {
+            return 0;
+        }
+        return outTarget(outStart(v) + k);
+    }
+
+    @Override
+    public int predecessor(int v, int k) {
+        if (k < 0 || k >= inDegree(v)) {
+            return 0;
+        }
+        return inSource(inStart(v) + k);
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        return new RowIteration(v, true);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        return new RowIteration(v, false);
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                return _k <= edgeSize();
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int e = edgeAt(_k);
+                _edge[0] = edgeU(e);
+                _edge[1] = edgeV(e);
+                _k += 1;
+                return _edge;
+            }
+
+            /** The position in edges() order of the next edge. */
+            private int _k = 1;
+            /** The array returned by every call of next(). */
+            private final int[] _edge = new int[2];
+        };
+    }
+
+    @Override
+    public int edges(int[] us, int[] vs) {
+        int n = edgeSize();
+        for (int k = 1; k <= n; k += 1) {
+            int e = edgeAt(k);
+            us[k - 1] = edgeU(e);
+            vs[k - 1] = edgeV(e);
+        }
+        return n;
+    }
+
+    @Override
+    public Graph freeze() {
+        return this;
+    }
+
+    @Override
+    protected boolean containcheck(int v) {
+        return v > 0 && v <= maxVertex() && present(v);
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!containcheck(u) || !containcheck(v)) {
+            return 0;
+        }
+        for (int k = outStart(u); k < outStart(u + 1); k += 1) {
+            if (outTarget(k) == v) {
+                return outId(k);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns true iff V, which must be in 1 .. maxVertex(), is one of my
+     * vertices.
+     */
+    abstract boolean present(int v);
+
+    /**
+     * Returns the index of the first successor of V, for V in 0 ..
+     * maxVertex() + 1.  Absent vertices have empty rows.
+     */
+    abstract int outStart(int v);
+
+    /**
+     * Returns entry K of the successor array.
+     */
+    abstract int outTarget(int k);
+
+    /**
+     * Returns the id of the edge leading to outTarget(K).
+     */
+    abstract int outId(int k);
+
+    /**
+     * Returns the index of the first predecessor of V, for V in 0 ..
+     * maxVertex() + 1.
+     */
+    abstract int inStart(int v);
+
+    /**
+     * Returns entry K of the predecessor array.
+     */
+    abstract int inSource(int k);
+
+    /**
+     * Returns the id of the K-th edge listed by edges(), for K in 1 ..
+     * edgeSize().
+     */
+    abstract int edgeAt(int k);
+
+    /**
+     * Returns the largest edge id, or 0 if there are no edges.
+     */
+    @Override
+    abstract int edgeIdLimit();
+
+    /**
+     * Returns the first end point of the edge whose id is E, or 0 if
+     * there is no such edge.
+     */
+    abstract int edgeU(int e);
+
+    /**
+     * Returns the second end point of the edge whose id is E, or 0 if
+     * there is no such edge.
+     */
+    abstract int edgeV(int e);
+
+    /**
+     * An iteration over the successors or predecessors of a vertex.
+     */
+    private class RowIteration extends IntIteration {
+
+        /**
+         * Iterates over the successors of V if OUT, and otherwise its
+         * predecessors.
+         */
+        RowIteration(int v, boolean out) {
+            _out = out;
+            if (containcheck(v)) {
+                _k = out ? outStart(v) : inStart(v);
+                _end = out ? outStart(v + 1) : inStart(v + 1);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _k < _end;
+        }
+
+        @Override
+        public int nextInt() {
+            if (_k >= _end) {
+                throw new NoSuchElementException();
+            }
+            _k += 1;
+            return _out ? outTarget(_k - 1) : inSource(_k - 1);
+        }
+
+        /**
+         * True iff iterating successors.
+         */
+        private final boolean _out;
+        /**
+         * Index of the next entry.
+         */
+        private int _k;
+        /**
+         * One past the index of the last entry.
+         */
+        private int _end;
+    }
+}
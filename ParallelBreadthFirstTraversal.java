@@ -0,0 +1,302 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A breadth-first traversal of a graph that expands each level of the
+ * search in parallel.  Unlike BreadthFirstTraversal, it makes no
+ * callbacks; it simply computes, for every vertex, its distance in edges
+ * from the nearest starting vertex (its level) and its parent in a
+ * breadth-first tree, as int arrays indexed by vertex.
+ * <p>
+ * The traversal is level-synchronous: each level is divided into chunks
+ * that are expanded as fork-join tasks, and vertices are claimed by
+ * setting their bits in an atomic bitmap.  Each level is expanded either
+ * top-down, scanning the successors of the vertices on the frontier, or
+ * bottom-up, scanning the predecessors of the unreached vertices until
+ * one on the frontier is found.  The traversal switches to bottom-up when
+ * the edges leaving the frontier outnumber a fraction of those leaving
+ * unreached vertices, and back when the frontier becomes small.  Which
+ * parent a vertex gets may depend on scheduling; its level does not.
+ * <p>
+ * The graph must not be modified during a traversal.  The pool used may
+ * be given, so that the effect of the number of worker threads can be
+ * measured.
+ */
+public class ParallelBreadthFirstTraversal {
+
+    /**
+     * A parallel breadth-first traversal of G using the common fork-join
+     * pool.
+     */
+    public ParallelBreadthFirstTraversal(Graph G) {
+        this(G, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * A parallel breadth-first traversal of G whose tasks run in POOL.
+     */
+    public ParallelBreadthFirstTraversal(Graph G, ForkJoinPool pool) {
+        _G = G;
+        _pool = pool;
+    }
+
+    /**
+     * Perform a traversal from V0.
+     */
+    public void traverse(int v0) {
+        traverse(Arrays.asList(v0));
+    }
+
+    /**
+     * Perform a traversal from all the vertices in V0 at once, replacing
+     * the results of any previous traversal.  Members of V0 that are not
+     * vertices of my graph are ignored.
+     */
+    public void traverse(Collection<Integer> V0) {
+        int n = _G.maxVertex() + 1;
+        _levels = new int[n];
+        Arrays.fill(_levels, -1);
+        _parents = new int[n];
+        _visited = new AtomicLongArray((n + WORD_SIZE - 1) / WORD_SIZE);
+        int[] frontier = new int[V0.size()];
+        int size = 0;
+        long degrees = 0;
+        for (int v : V0) {
+            if (_G.contains(v) && claim(v)) {
+                _levels[v] = 0;
+                frontier[size] = v;
+                size += 1;
+                degrees += _G.outDegree(v);
+            }
+        }
+        long unexplored =
+            (_G.isDirected() ? 1L : 2L) * _G.edgeSize() - degrees;
+        boolean bottomUp = false;
+        for (int depth = 0; size > 0; depth += 1) {
+            if (!bottomUp && degrees > unexplored / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && size < n / BETA) {
+                bottomUp = false;
+            }
+            Step[] steps;
+            if (bottomUp) {
+                int grain = WORD_SIZE * VERTEX_WORDS;
+                steps = new Step[(n + grain - 1) / grain];
+                for (int k = 0; k < steps.length; k += 1) {
+                    steps[k] = new Step(null, k * grain,
+                                        Math.min(n, (k + 1) * grain), depth);
+                }
+            } else {
+                steps = new Step[(size + FRONTIER_GRAIN - 1)
+                                 / FRONTIER_GRAIN];
+                for (int k = 0; k < steps.length; k += 1) {
+                    steps[k] = new Step(frontier, k * FRONTIER_GRAIN,
+                                        Math.min(size,
+                                                 (k + 1) * FRONTIER_GRAIN),
+                                        depth);
+                }
+            }
+            _pool.invoke(ForkJoinTask.adapt(
+                () -> ForkJoinTask.invokeAll(steps)));
+            size = 0;
+            degrees = 0;
+            for (Step step : steps) {
+                size += step._count;
+                degrees += step._degrees;
+            }
+            frontier = new int[size];
+            size = 0;
+            for (Step step : steps) {
+                System.arraycopy(step._found, 0, frontier, size, step._count);
+                size += step._count;
+            }
+            unexplored -= degrees;
+        }
+    }
+
+    /**
+     * Returns the levels found by the last traversal: element V is the
+     * number of edges on a shortest path to V from a starting vertex, or
+     * -1 if V was not reached.  The array has length maxVertex() + 1 at
+     * the time of the traversal, and is not reused by later traversals.
+     */
+    public int[] levels() {
+        return _levels;
+    }
+
+    /**
+     * Returns the parents found by the last traversal: element V is the
+     * vertex before V on a shortest path from a starting vertex, or 0 if
+     * V is a starting vertex or was not reached.  The array is like that
+     * returned by levels().
+     */
+    public int[] parents() {
+        return _parents;
+    }
+
+    /**
+     * Set V's bit in _visited.  Returns true iff it was previously clear.
+     */
+    private boolean claim(int v) {
+        int k = v / WORD_SIZE;
+        long bit = 1L << (v % WORD_SIZE);
+        long word;
+        do {
+            word = _visited.get(k);
+            if ((word & bit) != 0) {
+                return false;
+            }
+        } while (!_visited.compareAndSet(k, word, word | bit));
+        return true;
+    }
+
+    /**
+     * The expansion of one chunk of a level.
+     */
+    private class Step extends RecursiveAction {
+
+        /**
+         * A step that expands FRONTIER[LO .. HI-1] top-down if FRONTIER
+         * is not null, and otherwise examines the unreached vertices among
+         * LO .. HI-1 bottom-up, where the frontier is at level DEPTH.
+         */
+        Step(int[] frontier, int lo, int hi, int depth) {
+            _frontier = frontier;
+            _lo = lo;
+            _hi = hi;
+            _depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            if (_frontier != null) {
+                for (int i = _lo; i < _hi; i += 1) {
+                    int u = _frontier[i];
+                    IntIteration next = _G.successorInts(u);
+                    while (next.hasNext()) {
+                        int w = next.nextInt();
+                        if (claim(w)) {
+                            reach(w, u);
+                        }
+                    }
+                }
+            } else {
+                for (int v = _lo; v < _hi; v += 1) {
+                    if (_levels[v] >= 0 || !_G.contains(v)) {
+                        continue;
+                    }
+                    IntIteration prev = _G.predecessorInts(v);
+                    while (prev.hasNext()) {
+                        int u = prev.nextInt();
+                        if (_levels[u] == _depth) {
+                            claim(v);
+                            reach(v, u);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Record that V, just claimed, is reached from U.
+         */
+        private void reach(int v, int u) {
+            _levels[v] = _depth + 1;
+            _parents[v] = u;
+            if (_count == _found.length) {
+                _found = Arrays.copyOf(_found, 2 * _count);
+            }
+            _found[_count] = v;
+            _count += 1;
+            _degrees += _G.outDegree(v);
+        }
+
+        /**
+         * Version of the serialized form (RecursiveAction is
+         * Serializable).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The frontier, or null if expanding bottom-up.
+         */
+        private final int[] _frontier;
+        /**
+         * Bounds of my chunk.
+         */
+        private final int _lo, _hi;
+        /**
+         * Level of the frontier.
+         */
+        private final int _depth;
+        /**
+         * The vertices I reached, in the first _count elements.
+         */
+        private int[] _found = new int[INITIAL_CAPACITY];
+        /**
+         * Number of vertices I reached.
+         */
+        private int _count;
+        /**
+         * Total out-degree of the vertices I reached.
+         */
+        private long _degrees;
+    }
+
+    /**
+     * Go bottom-up when the edges leaving the frontier exceed 1/ALPHA
+     * of those leaving unreached vertices.
+     */
+    private static final int ALPHA = 14;
+    /**
+     * Return to top-down when the frontier holds fewer than 1/BETA of
+     * the vertices.
+     */
+    private static final int BETA = 24;
+    /**
+     * Number of frontier vertices in a top-down chunk.
+     */
+    private static final int FRONTIER_GRAIN = 256;
+    /**
+     * Number of bitmap words covered by a bottom-up chunk.
+     */
+    private static final int VERTEX_WORDS = 64;
+    /**
+     * Number of bits in a bitmap word.
+     */
+    private static final int WORD_SIZE = 64;
+    /**
+     * Initial length of a step's result array.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The graph traversed.
+     */
+    private final Graph _G;
+    /**
+     * The pool that runs my tasks.
+     */
+    private final ForkJoinPool _pool;
+    /**
+     * Levels found by the last traversal.
+     */
+    private int[] _levels = new int[0];
+    /**
+     * Parents found by the last traversal.
+     */
+    private int[] _parents = new int[0];
+    /**
+     * Bit V is set iff vertex V has been reached.
+     */
+    private AtomicLongArray _visited;
+}
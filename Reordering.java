@@ -0,0 +1,308 @@
+package graph;
+
+/* See restrictions in Graph.java. */
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * A renumbering of the vertices of a graph that places vertices that are
+ * near one another in the graph (or in the plane) near one another in
+ * numbering, and so in the arrays that store the graph.  A Reordering
+ * maps each vertex of the original graph (an old id) to a vertex 1 ..
+ * size() of the renumbered graph (a new id), and back.  apply creates
+ * the renumbered graph, carrying labels over when the graph is labeled.
+ * <p>
+ * The renumbered graph has the same edges, in the same order, as the
+ * original, so successor orders and the order of edge ids are unchanged
+ * apart from renaming.
+ */
+public final class Reordering {
+
+    /**
+     * Returns a renumbering of G in breadth-first order, treating edges
+     * as undirected and starting each component at its lowest-numbered
+     * vertex.
+     */
+    public static Reordering bfs(Graph G) {
+        Reordering result = new Reordering(G);
+        int[] queue = result._order;
+        int tail = 0;
+        for (int s : G.vertices()) {
+            if (result._newIds[s] == 0) {
+                tail = result.visit(s, tail);
+                for (int head = tail - 1; head < tail; head += 1) {
+                    int v = queue[head];
+                    for (IntIteration w = G.successorInts(v); w.hasNext();) {
+                        tail = result.visit(w.nextInt(), tail);
+                    }
+                    if (G.isDirected()) {
+                        for (IntIteration u = G.predecessorInts(v);
+                             u.hasNext();) {
+                            tail = result.visit(u.nextInt(), tail);
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the reverse Cuthill-McKee renumbering of G, which keeps the
+     * numbers of adjacent vertices close together.  Edges are treated as
+     * undirected.  Each component is started from one of its vertices of
+     * least degree, and the unnumbered neighbors of each vertex are
+     * numbered in increasing order of degree.  The resulting order is
+     * then reversed.
+     */
+    public static Reordering cuthillMcKee(Graph G) {
+        Reordering result = new Reordering(G);
+        int n = result.size();
+        long[] starts = new long[n];
+        int k = 0;
+        for (int v : G.vertices()) {
+            starts[k] = byKey(G.degree(v), v);
+            k += 1;
+        }
+        Arrays.sort(starts);
+
+        int[] queue = result._order;
+        long[] neighbors = new long[INITIAL_DEGREE];
+        int tail = 0;
+        for (long start : starts) {
+            int s = (int) start;
+            if (result._newIds[s] != 0) {
+                continue;
+            }
+            tail = result.visit(s, tail);
+            for (int head = tail - 1; head < tail; head += 1) {
+                int v = queue[head];
+                int count = 0;
+                if (neighbors.length < G.degree(v)) {
+                    neighbors = new long[G.degree(v)];
+                }
+                for (IntIteration w = G.successorInts(v); w.hasNext();) {
+                    int x = w.nextInt();
+                    neighbors[count] = byKey(G.degree(x), x);
+                    count += 1;
+                }
+                if (G.isDirected()) {
+                    for (IntIteration u = G.predecessorInts(v);
+                         u.hasNext();) {
+                        int x = u.nextInt();
+                        neighbors[count] = byKey(G.degree(x), x);
+                        count += 1;
+                    }
+                }
+                Arrays.sort(neighbors, 0, count);
+                for (int i = 0; i < count; i += 1) {
+                    tail = result.visit((int) neighbors[i], tail);
+                }
+            }
+        }
+
+        for (int i = 0, j = n - 1; i < j; i += 1, j -= 1) {
+            int v = queue[i];
+            queue[i] = queue[j];
+            queue[j] = v;
+        }
+        for (int i = 0; i < n; i += 1) {
+            result._newIds[queue[i]] = i + 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a renumbering of G in which vertex V lies at (X(V), Y(V))
+     * in the plane, and vertices are ordered along a Hilbert curve
+     * covering the bounding box of all vertices.  Vertices that are close
+     * in the plane are usually close in the ordering.  Vertices at the
+     * same grid point keep their relative order.
+     */
+    public static Reordering hilbert(Graph G, IntToDoubleFunction x,
+                                     IntToDoubleFunction y) {
+        Reordering result = new Reordering(G);
+        int n = result.size();
+        double[] xs = new double[n], ys = new double[n];
+        int[] vs = new int[n];
+        double minX, maxX, minY, maxY;
+        minX = minY = Double.POSITIVE_INFINITY;
+        maxX = maxY = Double.NEGATIVE_INFINITY;
+        int k = 0;
+        for (int v : G.vertices()) {
+            vs[k] = v;
+            xs[k] = x.applyAsDouble(v);
+            ys[k] = y.applyAsDouble(v);
+            minX = Math.min(minX, xs[k]);
+            maxX = Math.max(maxX, xs[k]);
+            minY = Math.min(minY, ys[k]);
+            maxY = Math.max(maxY, ys[k]);
+            k += 1;
+        }
+
+        long[] keys = new long[n];
+        for (k = 0; k < n; k += 1) {
+            keys[k] = byKey(hilbertIndex(grid(xs[k], minX, maxX),
+                                         grid(ys[k], minY, maxY)), k);
+        }
+        Arrays.sort(keys);
+        int tail = 0;
+        for (long key : keys) {
+            tail = result.visit(vs[(int) key], tail);
+        }
+        return result;
+    }
+
+    /**
+     * An empty renumbering of the vertices of G.
+     */
+    private Reordering(Graph G) {
+        _order = new int[G.vertexSize()];
+        _newIds = new int[G.maxVertex() + 1];
+    }
+
+    /**
+     * Returns the number of vertices renumbered.
+     */
+    public int size() {
+        return _order.length;
+    }
+
+    /**
+     * Returns the new id of vertex V of the original graph, or 0 if V
+     * was not one of its vertices.
+     */
+    public int newId(int v) {
+        return v > 0 && v < _newIds.length ? _newIds[v] : 0;
+    }
+
+    /**
+     * Returns the vertex of the original graph whose new id is V, which
+     * must be in 1 .. size().
+     */
+    public int oldId(int v) {
+        if (v <= 0 || v > _order.length) {
+            throw new IllegalArgumentException("no such vertex");
+        }
+        return _order[v - 1];
+    }
+
+    /**
+     * Returns a new graph of the same kind as G, which must be the graph
+     * from which I was computed, whose vertices are 1 .. size() and whose
+     * edges are those of G, renumbered.
+     */
+    public Graph apply(Graph G) {
+        if (G.vertexSize() != size() || G.maxVertex() >= _newIds.length) {
+            throw new IllegalArgumentException("graph was not reordered");
+        }
+        int[] us = new int[G.edgeSize()], vs = new int[G.edgeSize()];
+        int m = G.edges(us, vs);
+        for (int k = 0; k < m; k += 1) {
+            us[k] = _newIds[us[k]];
+            vs[k] = _newIds[vs[k]];
+        }
+        return new GraphBuilder(G.isDirected()).vertices(size())
+            .add(us, vs).build();
+    }
+
+    /**
+     * Returns a new labeled graph as for apply(G), in which each vertex
+     * and edge has the label and column values of the corresponding
+     * vertex or edge of G.
+     */
+    public <VL, EL> LabeledGraph<VL, EL> apply(LabeledGraph<VL, EL> G) {
+        LabeledGraph<VL, EL> result = new LabeledGraph<>(apply((Graph) G));
+        for (int v = 1; v <= size(); v += 1) {
+            VL lab = G.getLabel(_order[v - 1]);
+            if (lab != null) {
+                result.setLabel(v, lab);
+            }
+        }
+        for (int[] e : G.edges()) {
+            EL lab = G.getLabel(e[0], e[1]);
+            if (lab != null) {
+                result.setLabel(_newIds[e[0]], _newIds[e[1]], lab);
+            }
+        }
+        G.copyColumns(result, this::newId);
+        return result;
+    }
+
+    /**
+     * Give vertex V the next new id, TAIL + 1, unless it already has one.
+     * Returns the number of vertices then numbered.
+     */
+    private int visit(int v, int tail) {
+        if (_newIds[v] != 0) {
+            return tail;
+        }
+        _order[tail] = v;
+        _newIds[v] = tail + 1;
+        return tail + 1;
+    }
+
+    /**
+     * Returns a sort key that orders by the non-negative int KEY and then
+     * by the non-negative int V, which is its low half.
+     */
+    private static long byKey(int key, int v) {
+        return ((long) key << Integer.SIZE) | v;
+    }
+
+    /**
+     * Returns the cell in 0 .. GRID_SIZE - 1 containing coordinate X of
+     * the interval [MIN, MAX].
+     */
+    private static int grid(double x, double min, double max) {
+        if (!(max > min)) {
+            return 0;
+        }
+        int cell = (int) ((x - min) / (max - min) * GRID_SIZE);
+        return Math.min(cell, GRID_SIZE - 1);
+    }
+
+    /**
+     * Returns the distance along the Hilbert curve over a GRID_SIZE x
+     * GRID_SIZE grid of the cell (X, Y).
+     */
+    private static int hilbertIndex(int x, int y) {
+        int d = 0;
+        for (int s = GRID_SIZE / 2; s > 0; s /= 2) {
+            int rx = (x & s) > 0 ? 1 : 0;
+            int ry = (y & s) > 0 ? 1 : 0;
+            d += s * s * ((3 * rx) ^ ry);
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = GRID_SIZE - 1 - x;
+                    y = GRID_SIZE - 1 - y;
+                }
+                int t = x;
+                x = y;
+                y = t;
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Number of cells along each side of the Hilbert grid (a power of 2
+     * small enough that every index fits in a non-negative int).
+     */
+    private static final int GRID_SIZE = 1 << 15;
+    /**
+     * Initial length of the neighbor buffer.
+     */
+    private static final int INITIAL_DEGREE = 16;
+
+    /**
+     * Old ids in order of new id: vertex K + 1 of the renumbered graph is
+     * _order[K] of the original.
+     */
+    private final int[] _order;
+    /**
+     * New id of each old id, or 0 for non-vertices.
+     */
+    private final int[] _newIds;
+}
@@ -24,16 +24,6 @@ class Rule {
         _finished = false;
     }
 
-    /**
-     * Add the target of DEPENDENT to my dependencies.
-     */
-    void addDependency(Rule dependent) {
-        if (!_depends.contains(dependent.getVertex())) {
-            _depends.add(dependent);
-        }
-        _depends.add(_vertex, dependent.getVertex());
-    }
-
     /**
      * Add COMMANDS to my command set.  Signals IllegalStateException if
      * COMMANDS is non-empty, but I already have a non-empty command set.
@@ -109,12 +99,7 @@ class Rule {
      * (error otherwise).
      */
     void rebuild() {
-
-        try {
-            checkFinishedDependencies();
-        } catch (StackOverflowError e) {
-            throw new IllegalStateException("Error: Circular loop");
-        }
+        checkFinishedDependencies();
         if (outOfDate()) {
             if (_commands.isEmpty()) {
                 error("Error: %s needs to be rebuilt, but has no commands",
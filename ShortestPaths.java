@@ -24,6 +24,7 @@ public abstract class ShortestPaths {
      */
     public ShortestPaths(Graph G, int source, int dest) {
         _G = G;
+        _view = G;
         _source = source;
         _dest = dest;
     }
@@ -34,8 +35,11 @@ public abstract class ShortestPaths {
      */
     public void setPaths() {
         route = new LinkedList<Integer>();
-        astarroute = new AStar(_G, new AStarPriorityQueue());
-        for (Integer i : _G.vertices()) {
+        _view = _G.readView();
+        astarroute = new AStar(_view, new AStarPriorityQueue());
+        IntIteration vertices = _view.vertexInts();
+        while (vertices.hasNext()) {
+            int i = vertices.nextInt();
             setWeight(i, Double.MAX_VALUE);
             setPredecessor(i, 0);
         }
@@ -43,6 +47,15 @@ public abstract class ShortestPaths {
         astarroute.traverse(getSource());
     }
 
+    /**
+     * Returns the graph searched by the last call of setPaths, which
+     * does not change during the search even if the graph given to my
+     * constructor does, or that graph if setPaths has not been called.
+     */
+    protected Graph getGraph() {
+        return _view;
+    }
+
     /**
      * Returns the starting vertex.
      */
@@ -90,10 +103,22 @@ public abstract class ShortestPaths {
 
     /**
      * Returns the current weight of edge (U, V) in the graph.  If (U, V) is
-     * not in the graph, returns positive infinity.
+     * not in the graph, returns positive infinity.  During setPaths,
+     * (U, V) is an edge of getGraph(), which should be consulted in place
+     * of the graph given to my constructor if that may change meanwhile.
      */
     protected abstract double getWeight(int u, int v);
 
+    /**
+     * Returns a column of the weights of the edges of the graph being
+     * searched, indexed by its edge ids, to be read in place of
+     * getWeight(u, v), or null if getWeight(u, v) is to be used.  Null
+     * by default.
+     */
+    protected DoubleColumn edgeWeights() {
+        return null;
+    }
+
     /**
      * Returns a list of vertices starting at _source and ending
      * at V that represents a shortest path to V.  Invalid if there is a
@@ -129,6 +154,8 @@ public abstract class ShortestPaths {
          */
         protected AStar(Graph G, Queue<Integer> fringe) {
             super(G, fringe);
+            _view = G;
+            _weights = edgeWeights();
         }
 
         @Override
@@ -136,8 +163,15 @@ public abstract class ShortestPaths {
             if (v == ShortestPaths.this.getDest()) {
                 return false;
             } else {
-                for (Integer w : _G.successors(v)) {
-                    double n = getWeight(v, w);
+                IntIteration successors = _view.successorInts(v);
+                while (successors.hasNext()) {
+                    int w = successors.nextInt();
+                    double n;
+                    if (_weights == null) {
+                        n = getWeight(v, w);
+                    } else {
+                        n = _weights.get(_view.edgeId(v, w));
+                    }
                     double distW = getWeight(w);
                     double distV = getWeight(v);
                     double newDist = n + distV;
@@ -149,6 +183,15 @@ public abstract class ShortestPaths {
                 return true;
             }
         }
+
+        /**
+         * The graph being searched.
+         */
+        private final Graph _view;
+        /**
+         * Edge weights indexed by the edge ids of _view, or null.
+         */
+        private final DoubleColumn _weights;
     }
 
     /**
@@ -297,6 +340,10 @@ public abstract class ShortestPaths {
      * The graph being searched.
      */
     protected final Graph _G;
+    /**
+     * The graph searched by the last call of setPaths, or _G.
+     */
+    private Graph _view;
     /**
      * The starting vertex for the graph.
      */
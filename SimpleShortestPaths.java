@@ -27,7 +27,8 @@ public abstract class SimpleShortestPaths extends ShortestPaths {
 
     /**
      * Returns the current weight of edge (U, V) in the graph.  If (U, V) is
-     * not in the graph, returns positive infinity.
+     * not in the graph, returns positive infinity.  During setPaths,
+     * getGraph() is the graph to consult.
      */
     @Override
     protected abstract double getWeight(int u, int v);
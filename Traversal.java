@@ -6,7 +6,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Queue;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 
 /**
@@ -25,8 +29,17 @@ import java.util.Collections;
  * the reverseSuccessors and processSuccessor methods, the client can control
  * the addition of neighbor vertices to the fringe when a vertex is visited.
  * <p>
+ * A vertex is put back on the fringe just before it is visited, and is
+ * post-visited when it is removed again.  A client-supplied fringe sees
+ * every such addition, so its ordering of vertices is as it always was.
+ * When the fringe is an IntQueue, on which the extra entries cannot
+ * change the order of visits, only vertices to be post-visited are put
+ * back.
+ * <p>
  * Traversals may be interrupted or restarted, remembering the previously
- * marked vertices.
+ * marked vertices.  A traversal may also be bounded by a maximum depth,
+ * a maximum number of visits and a deadline, after which status() tells
+ * whether it was cut short; the vertices visited so far remain marked.
  *
  * @author Shrey Malhotra
  */
@@ -38,71 +51,376 @@ public abstract class Traversal {
     protected Traversal(Graph G, Queue<Integer> fringe) {
         _G = G;
         _fringe = fringe;
-        _marked = new ArrayList<Integer>();
-
+        _ints = fringe instanceof IntQueue ? (IntQueue) fringe : null;
+        _marks = new int[G.maxVertex() + 1];
+        _postVisits = new int[_marks.length];
     }
 
     /**
-     * Unmark all vertices in the graph.
+     * Unmark all vertices in the graph and empty the fringe of anything
+     * left by an interrupted traversal.  Marks are stamped with a
+     * generation number, and this starts a new one, so that it takes
+     * constant time when the fringe is an IntQueue.
      */
     public void clear() {
-        _marked.clear();
+        _fringe.clear();
+        _cutSize = 0;
+        if (_generation == Integer.MAX_VALUE) {
+            Arrays.fill(_marks, 0);
+            _generation = 0;
+        }
+        _generation += 1;
+    }
 
+    /**
+     * Do not visit vertices more than DEPTH edges from the starting
+     * vertices (as found by the traversal) in future traversals.
+     */
+    public void setMaxDepth(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("negative depth");
+        }
+        _maxDepth = depth;
+    }
+
+    /**
+     * End future traversals after they have visited N vertices.
+     */
+    public void setMaxVisits(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("negative visit count");
+        }
+        _maxVisits = n;
+    }
+
+    /**
+     * End future traversals, without visiting further vertices, once
+     * System.nanoTime() reaches DEADLINE.
+     */
+    public void setDeadline(long deadline) {
+        _deadline = deadline;
+        _hasDeadline = true;
+    }
+
+    /**
+     * Remove any limits set by setMaxDepth, setMaxVisits and setDeadline.
+     */
+    public void clearLimits() {
+        _maxDepth = _maxVisits = Integer.MAX_VALUE;
+        _hasDeadline = false;
+    }
+
+    /**
+     * Returns how the last traversal ended (or is ending, for a stream
+     * still in use).
+     */
+    public Status status() {
+        return _status;
     }
 
     /**
      * Initialize the fringe to V0 and perform a traversal.
      */
     public void traverse(Collection<Integer> V0) {
-        ArrayList<Integer> traversalstore = new ArrayList<Integer>();
         _fringe.addAll(V0);
+        traverse();
+    }
+
+    /**
+     * Initialize the fringe to { V0 } and perform a traversal.
+     */
+    public void traverse(int v0) {
+        push(v0);
+        traverse();
+    }
+
+    /**
+     * Returns the vertices visited by a traversal from V0, in the order
+     * visited.  The traversal is performed lazily: each vertex is visited
+     * (and the vertices before it post-visited) only when the stream's
+     * consumer asks for it, so short-circuiting operations such as limit
+     * and anyMatch stop the traversal early.  The stream ends where the
+     * traversal would.  A stream abandoned early leaves the traversal
+     * interrupted, as when visit returns false; clear() discards the rest
+     * of it.  No other traversal may be started until the stream is
+     * finished with.
+     */
+    public IntStream stream(Collection<Integer> V0) {
+        Spliterator.OfInt visits =
+            new Spliterators.AbstractIntSpliterator(Long.MAX_VALUE,
+                                                    Spliterator.ORDERED
+                                                    | Spliterator.DISTINCT
+                                                    | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(IntConsumer action) {
+                    if (_done) {
+                        return false;
+                    }
+                    if (!_started) {
+                        _fringe.addAll(V0);
+                        start();
+                        _started = true;
+                    }
+                    int v = advance();
+                    if (v == 0) {
+                        _done = true;
+                        return false;
+                    }
+                    action.accept(v);
+                    return true;
+                }
+
+                /** True once the traversal has been started. */
+                private boolean _started;
+                /** True once the traversal has ended. */
+                private boolean _done;
+            };
+        return StreamSupport.intStream(visits, false);
+    }
+
+    /**
+     * Returns the vertices visited by a traversal from V0, as for
+     * stream(Collection).
+     */
+    public IntStream stream(int v0) {
+        return stream(Arrays.asList(v0));
+    }
+
+    /**
+     * Perform a traversal starting from the current fringe.
+     */
+    private void traverse() {
+        start();
+        while (advance() != 0) {
+            continue;
+        }
+    }
+
+    /**
+     * Prepare to perform a traversal starting from the current fringe.
+     */
+    protected void start() {
+        if (_postGeneration == Integer.MAX_VALUE) {
+            Arrays.fill(_postVisits, 0);
+            Arrays.fill(_depthStamps, 0);
+            _postGeneration = 0;
+        }
+        _postGeneration += 1;
+        _status = Status.COMPLETE;
+        _visits = 0;
+        if (_maxDepth != Integer.MAX_VALUE) {
+            for (int v : _fringe) {
+                reach(v, 0);
+            }
+        }
+    }
+
+    /**
+     * Continue the traversal prepared by start() through the next visit.
+     * Returns the vertex visited, or 0 if there is none because the
+     * traversal is complete or visit has terminated it.  A vertex is put
+     * back on the fringe after its visit only if it is to be
+     * post-visited.
+     */
+    protected int advance() {
         while (!_fringe.isEmpty()) {
-            int curr = _fringe.remove();
+            int curr = _ints != null ? _ints.removeInt() : _fringe.remove();
             if (!marked(curr)) {
+                if (!mayVisit()) {
+                    return 0;
+                }
                 mark(curr);
-                _fringe.add(curr);
-                Iteration<Integer> next = _G.successors(curr);
+                if (_ints == null || shouldPostVisit(curr)) {
+                    push(curr);
+                }
+                IntIteration next = _G.successorInts(curr);
                 if (!visit(curr)) {
-                    return;
+                    stopped();
+                    return 0;
+                }
+                int depth = depth(curr);
+                if (depth >= _maxDepth) {
+                    cutOff(next);
+                    return curr;
                 }
-                flip.clear();
-                while (next.hasNext()) {
-                    int notvisited = next.next();
+                int n;
+                for (n = 0; next.hasNext(); ) {
+                    int notvisited = next.nextInt();
                     if (processSuccessor(curr, notvisited)) {
-                        flip.add(notvisited);
+                        if (n == _successors.length) {
+                            _successors = Arrays.copyOf(_successors, 2 * n);
+                        }
+                        _successors[n] = notvisited;
+                        n += 1;
+                    }
+                }
+                if (_maxDepth != Integer.MAX_VALUE) {
+                    for (int k = 0; k < n; k += 1) {
+                        reach(_successors[k], depth + 1);
                     }
                 }
                 if (reverseSuccessors(curr)) {
-                    Collections.reverse(flip);
+                    for (int k = n - 1; k >= 0; k -= 1) {
+                        push(_successors[k]);
+                    }
+                } else {
+                    for (int k = 0; k < n; k += 1) {
+                        push(_successors[k]);
+                    }
+                }
+                return curr;
+            } else if (!postVisited(curr) && shouldPostVisit(curr)) {
+                _postVisits = stamp(_postVisits, curr, _postGeneration);
+                if (!postVisit(curr)) {
+                    stopped();
+                    return 0;
                 }
-                _fringe.addAll(flip);
-            } else if (!traversalstore.contains(curr)
-                    && shouldPostVisit(curr)) {
-                traversalstore.add(curr);
-                postVisit(curr);
             }
         }
+        return exhausted();
     }
 
     /**
-     * Initialize the fringe to { V0 } and perform a traversal.
+     * Returns true iff the visit limit and deadline allow another vertex
+     * to be visited, counting the visit.  Otherwise, records why not in
+     * status() and empties the fringe, ending the traversal.
      */
-    public void traverse(int v0) {
-        traverse(Arrays.asList(v0));
+    boolean mayVisit() {
+        if (_visits >= _maxVisits) {
+            _status = Status.VISIT_LIMITED;
+        } else if (_hasDeadline && System.nanoTime() - _deadline >= 0) {
+            _status = Status.TIMED_OUT;
+        } else {
+            _visits += 1;
+            return true;
+        }
+        _fringe.clear();
+        _cutSize = 0;
+        return false;
+    }
+
+    /**
+     * Record in status() that the traversal ended on a false return from
+     * visit or postVisit.
+     */
+    void stopped() {
+        _status = Status.STOPPED;
+    }
+
+    /**
+     * Returns the maximum depth of vertices to visit.
+     */
+    int maxDepth() {
+        return _maxDepth;
+    }
+
+    /**
+     * Given the SUCCESSORS of a vertex at the maximum depth, which will
+     * not be explored from it, remember those that are unmarked and not
+     * already on the fringe.  Any of them may yet be reached by another
+     * path; exhausted() checks.
+     */
+    void cutOff(IntIteration successors) {
+        while (successors.hasNext()) {
+            int w = successors.nextInt();
+            if (!marked(w) && (w >= _depthStamps.length
+                               || _depthStamps[w] != _postGeneration)) {
+                if (_cutSize == _cut.length) {
+                    _cut = Arrays.copyOf(_cut, 2 * _cutSize);
+                }
+                _cut[_cutSize] = w;
+                _cutSize += 1;
+            }
+        }
+    }
+
+    /**
+     * End a traversal whose fringe is empty, recording in status() if any
+     * vertex passed to cutOff is still unmarked.  Returns 0.
+     */
+    int exhausted() {
+        for (int k = 0; k < _cutSize; k += 1) {
+            if (!marked(_cut[k])) {
+                if (_status == Status.COMPLETE) {
+                    _status = Status.DEPTH_LIMITED;
+                }
+                break;
+            }
+        }
+        _cutSize = 0;
+        return 0;
+    }
+
+    /**
+     * Returns the depth recorded for V in the current traversal, which is
+     * 0 if none is.
+     */
+    private int depth(int v) {
+        return v < _depthStamps.length && _depthStamps[v] == _postGeneration
+            ? _depths[v] : 0;
+    }
+
+    /**
+     * Record that V is reachable at DEPTH in the current traversal,
+     * unless it is already recorded at a smaller depth.
+     */
+    private void reach(int v, int depth) {
+        if (v < _depthStamps.length && _depthStamps[v] == _postGeneration
+            && _depths[v] <= depth) {
+            return;
+        }
+        _depthStamps = stamp(_depthStamps, v, _postGeneration);
+        if (_depths.length < _depthStamps.length) {
+            _depths = Arrays.copyOf(_depths, _depthStamps.length);
+        }
+        _depths[v] = depth;
+    }
+
+    /**
+     * Add V to the fringe.
+     */
+    private void push(int v) {
+        if (_ints != null) {
+            _ints.addInt(v);
+        } else {
+            _fringe.add(v);
+        }
     }
 
     /**
      * Returns true iff V has been marked.
      */
     protected boolean marked(int v) {
-        return _marked.contains(v);
+        return v >= 0 && v < _marks.length && _marks[v] == _generation;
     }
 
     /**
      * Mark vertex V.
      */
     protected void mark(int v) {
-        _marked.add(v);
+        _marks = stamp(_marks, v, _generation);
+    }
+
+    /**
+     * Returns true iff V has been post-visited during the current call
+     * of traverse.
+     */
+    private boolean postVisited(int v) {
+        return v < _postVisits.length && _postVisits[v] == _postGeneration;
+    }
+
+    /**
+     * Set STAMPS[V] to GENERATION, first enlarging STAMPS to cover
+     * vertices up to V and my graph's maximum vertex if necessary.
+     * Returns the resulting array.
+     */
+    private int[] stamp(int[] stamps, int v, int generation) {
+        if (v >= stamps.length) {
+            stamps = Arrays.copyOf(stamps,
+                                   Math.max(v, _G.maxVertex()) + 1);
+        }
+        stamps[v] = generation;
+        return stamps;
     }
 
     /**
@@ -156,14 +474,106 @@ public abstract class Traversal {
     protected final Queue<Integer> _fringe;
 
     /**
-     * Store the marked verticies.
+     * Formerly the successors of a vertex to be added to the fringe.
+     * Traversal no longer uses it.
+     * @deprecated Successors are collected in a private int array.
      */
-    private ArrayList<Integer> _marked;
+    @Deprecated
+    protected ArrayList<Integer> flip = new ArrayList<Integer>();
 
     /**
-     * Arraylist of those for reverse.
+     * The fringe, if it is an IntQueue, and otherwise null.
      */
-    protected ArrayList<Integer> flip = new ArrayList<Integer>();
+    private final IntQueue _ints;
 
+    /**
+     * _marks[V] == _generation iff V is marked.
+     */
+    private int[] _marks;
 
+    /**
+     * The current marking generation (at least 1).
+     */
+    private int _generation = 1;
+
+    /**
+     * _postVisits[V] == _postGeneration iff V has been post-visited
+     * during the current call of traverse.
+     */
+    private int[] _postVisits;
+
+    /**
+     * The generation of the current call of traverse.
+     */
+    private int _postGeneration;
+
+    /**
+     * _depths[V] is the depth of V in the current traversal, if
+     * _depthStamps[V] == _postGeneration.  Maintained only when there is
+     * a maximum depth.
+     */
+    private int[] _depths = new int[0], _depthStamps = new int[0];
+
+    /**
+     * Vertices cut off at the maximum depth during the current traversal,
+     * in the first _cutSize entries.
+     */
+    private int[] _cut = new int[16];
+
+    /**
+     * Number of vertices in _cut.
+     */
+    private int _cutSize;
+
+    /**
+     * Maximum depth of vertices to visit.
+     */
+    private int _maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * Maximum number of visits in a traversal.
+     */
+    private int _maxVisits = Integer.MAX_VALUE;
+
+    /**
+     * Value of System.nanoTime() at which to end traversals, if
+     * _hasDeadline.
+     */
+    private long _deadline;
+
+    /**
+     * True iff traversals have a deadline.
+     */
+    private boolean _hasDeadline;
+
+    /**
+     * Number of vertices visited in the current traversal.
+     */
+    private int _visits;
+
+    /**
+     * How the last traversal ended.
+     */
+    private Status _status = Status.COMPLETE;
+
+    /**
+     * Buffer for the successors of a vertex to be added to the fringe.
+     */
+    private int[] _successors = new int[16];
+
+    /**
+     * The ways in which a traversal may end.
+     */
+    public enum Status {
+        /** Every vertex reachable from the starting vertices was visited. */
+        COMPLETE,
+        /** A call of visit or postVisit returned false. */
+        STOPPED,
+        /** Complete, except for vertices beyond the maximum depth. */
+        DEPTH_LIMITED,
+        /** The maximum number of vertices was visited. */
+        VISIT_LIMITED,
+        /** The deadline passed. */
+        TIMED_OUT
+    }
 }
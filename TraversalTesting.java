@@ -4,6 +4,10 @@ import org.junit.Test;
 import static org.junit.Assert.*;
 import static java.util.Arrays.asList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
 
 public class TraversalTesting  {
 
@@ -128,4 +132,286 @@ public class TraversalTesting  {
 
 
     }
+
+    @Test
+    public void clearTest() {
+        DirectedGraph g = new DirectedGraph();
+        g.add();
+        g.add();
+        g.add(1, 2);
+        BfsObj o = new BfsObj(g);
+        o.traverse(1);
+        assertEquals(asList(1, 2), o._visited);
+        o.traverse(1);
+        assertEquals(asList(1, 2), o._visited);
+        g.add();
+        g.add(2, 3);
+        o.clear();
+        o.traverse(1);
+        assertEquals(asList(1, 2, 1, 2, 3), o._visited);
+        o.clear();
+        o.traverse(2);
+        assertEquals(asList(1, 2, 1, 2, 3, 2, 3), o._visited);
+    }
+
+    @Test
+    public void intQueueTest() {
+        IntQueue q = IntQueue.fifo();
+        IntQueue s = IntQueue.lifo();
+        for (int k = 0; k < 10; k += 1) {
+            q.addInt(k);
+            q.removeInt();
+        }
+        for (int k = 0; k < 40; k += 1) {
+            q.addInt(k);
+            s.add(k);
+        }
+        assertEquals(40, q.size());
+        assertEquals(0, q.peekInt());
+        assertEquals(Integer.valueOf(39), s.peek());
+        assertEquals(Integer.valueOf(0), q.iterator().next());
+        for (int k = 0; k < 40; k += 1) {
+            assertEquals(k, q.removeInt());
+            assertEquals(39 - k, s.removeInt());
+        }
+        assertTrue(q.isEmpty() && s.isEmpty());
+        assertNull(q.poll());
+    }
+
+    @Test
+    public void deepDfsTest() {
+        int n = 500000;
+        DirectedGraph g = new DirectedGraph();
+        for (int k = 0; k < n; k += 1) {
+            g.add();
+        }
+        for (int k = 1; k < n; k += 1) {
+            g.add(k, k + 1);
+        }
+        g.add(n, 1);
+        DfsObj o = new DfsObj(g);
+        o.traverse(1);
+        assertEquals(n, o._visited.size());
+        assertEquals(n, o._postVisited.size());
+        assertEquals(Integer.valueOf(n), o._visited.get(n - 1));
+        assertEquals(Integer.valueOf(n), o._postVisited.get(0));
+        assertEquals(Integer.valueOf(1), o._postVisited.get(n - 1));
+    }
+
+    @Test
+    public void parallelBfsTest() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (boolean directed : new boolean[] { true, false }) {
+                int n = 20000;
+                GraphBuilder b = new GraphBuilder(directed).vertices(n);
+                long r = 17;
+                for (int k = 0; k < 3 * n; k += 1) {
+                    r = (r * 6364136223846793005L + 1442695040888963407L);
+                    int u = (int) ((r >>> 33) % n) + 1;
+                    r = (r * 6364136223846793005L + 1442695040888963407L);
+                    int v = (int) ((r >>> 33) % n) + 1;
+                    b.add(u, v);
+                }
+                Graph g = b.build();
+                int[] expected = new int[n + 1];
+                Arrays.fill(expected, -1);
+                IntQueue q = IntQueue.fifo();
+                for (int v0 : new int[] { 1, 2 }) {
+                    expected[v0] = 0;
+                    q.addInt(v0);
+                }
+                while (!q.isEmpty()) {
+                    int u = q.removeInt();
+                    for (int w : g.successors(u)) {
+                        if (expected[w] < 0) {
+                            expected[w] = expected[u] + 1;
+                            q.addInt(w);
+                        }
+                    }
+                }
+                ParallelBreadthFirstTraversal p =
+                    new ParallelBreadthFirstTraversal(g, pool);
+                p.traverse(asList(1, 2));
+                assertArrayEquals(expected, p.levels());
+                int[] parents = p.parents();
+                for (int v = 1; v <= n; v += 1) {
+                    if (expected[v] > 0) {
+                        assertEquals(expected[v] - 1, expected[parents[v]]);
+                        assertTrue(g.contains(parents[v], v));
+                    } else {
+                        assertEquals(0, parents[v]);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void streamTest() {
+        DirectedGraph g = new DirectedGraph();
+        for (int k = 0; k < 1000; k += 1) {
+            g.add();
+        }
+        for (int k = 1; k < 1000; k += 1) {
+            g.add(k, k + 1);
+        }
+        BfsObj o = new BfsObj(g);
+        assertArrayEquals(new int[] { 1, 2, 3 },
+                          o.stream(1).limit(3).toArray());
+        assertEquals(asList(1, 2, 3), o._visited);
+        o.clear();
+        assertTrue(o.stream(10).anyMatch(v -> v == 20));
+        assertEquals(14, o._visited.size());
+        DfsObj d = new DfsObj(g);
+        assertEquals(991, d.stream(asList(10)).count());
+        assertEquals(991, d._postVisited.size());
+    }
+
+    @Test
+    public void limitTest() {
+        UndirectedGraph g = new UndirectedGraph();
+        for (int k = 0; k < 10; k += 1) {
+            g.add();
+        }
+        for (int k = 1; k < 10; k += 1) {
+            g.add(k, k + 1);
+        }
+        BfsObj b = new BfsObj(g);
+        b.traverse(5);
+        assertEquals(Traversal.Status.COMPLETE, b.status());
+        b.clear();
+        b.setMaxDepth(2);
+        b.traverse(5);
+        assertEquals(Traversal.Status.DEPTH_LIMITED, b.status());
+        assertEquals(15, b._visited.size());
+        b.clear();
+        b.setMaxDepth(9);
+        b.setMaxVisits(3);
+        b.traverse(1);
+        assertEquals(Traversal.Status.VISIT_LIMITED, b.status());
+        assertEquals(asList(1, 2, 3), b._visited.subList(15, 18));
+        b.clear();
+        b.clearLimits();
+        b.setDeadline(System.nanoTime());
+        b.traverse(1);
+        assertEquals(Traversal.Status.TIMED_OUT, b.status());
+        assertEquals(18, b._visited.size());
+        DfsObj d = new DfsObj(g);
+        d.setMaxDepth(3);
+        d.traverse(1);
+        assertEquals(Traversal.Status.DEPTH_LIMITED, d.status());
+        assertEquals(asList(1, 2, 3, 4), d._visited);
+        assertEquals(asList(4, 3, 2, 1), d._postVisited);
+    }
+
+    @Test
+    public void clientFringeTest() {
+        Graph g = new GraphBuilder(true).vertices(3).add(1, 2).add(1, 3)
+            .build();
+        ArrayList<Integer> added = new ArrayList<>();
+        Queue<Integer> fringe = new LinkedList<Integer>() {
+            @Override
+            public boolean add(Integer v) {
+                added.add(v);
+                return super.add(v);
+            }
+        };
+        Traversal t = new Traversal(g, fringe) {
+        };
+        t.traverse(1);
+        assertEquals(asList(1, 1, 2, 3, 2, 3), added);
+    }
+
+    @Test
+    public void dfsResumeTest() {
+        Graph g = new GraphBuilder(true).vertices(4).add(1, 2).add(1, 3)
+            .add(3, 4).build();
+        DfsObj o = new DfsObj(g) {
+            @Override
+            protected boolean visit(int v) {
+                super.visit(v);
+                return v != 2;
+            }
+        };
+        o.traverse(1);
+        assertEquals(asList(1, 2), o._visited);
+        assertEquals(Traversal.Status.STOPPED, o.status());
+        o.traverse(1);
+        assertEquals(asList(1, 2, 3, 4), o._visited);
+        assertEquals(asList(2, 4, 3, 1), o._postVisited);
+        assertEquals(Traversal.Status.COMPLETE, o.status());
+
+        Graph h = new GraphBuilder(true).vertices(4).add(1, 2).add(2, 3)
+            .add(1, 4).build();
+        DfsObj p = new DfsObj(h) {
+            @Override
+            protected boolean visit(int v) {
+                super.visit(v);
+                return v != 2;
+            }
+        };
+        p.traverse(1);
+        assertEquals(asList(1, 2), p._visited);
+        p.traverse(1);
+        assertEquals(asList(1, 2, 3, 4), p._visited);
+        assertEquals(asList(3, 2, 4, 1), p._postVisited);
+
+        o.clear();
+        o._visited.clear();
+        o._postVisited.clear();
+        o.traverse(1);
+        o.clear();
+        o.traverse(3);
+        assertEquals(asList(1, 2, 3, 4), o._visited);
+        assertEquals(asList(4, 3), o._postVisited);
+    }
+
+    @Test
+    public void depthCutOffTest() {
+        Graph g = new GraphBuilder(true).vertices(3).add(1, 2).add(1, 3)
+            .add(2, 3).build();
+        BfsObj b = new BfsObj(g);
+        b.setMaxDepth(1);
+        b.traverse(1);
+        assertEquals(asList(1, 2, 3), b._visited);
+        assertEquals(Traversal.Status.COMPLETE, b.status());
+
+        DfsObj d = new DfsObj(g);
+        d.setMaxDepth(1);
+        d.traverse(1);
+        assertEquals(asList(1, 2, 3), d._visited);
+        assertEquals(Traversal.Status.COMPLETE, d.status());
+
+        Graph h = new GraphBuilder(true).vertices(3).add(1, 2).add(2, 3)
+            .build();
+        d = new DfsObj(h);
+        d.setMaxDepth(1);
+        d.traverse(1);
+        assertEquals(Traversal.Status.DEPTH_LIMITED, d.status());
+    }
+
+    @Test
+    public void postVisitStopTest() {
+        Graph g = new GraphBuilder(true).vertices(3).add(1, 2).add(2, 3)
+            .build();
+        ArrayList<Integer> posts = new ArrayList<>();
+        Traversal t = new Traversal(g, new LinkedList<Integer>()) {
+            @Override
+            protected boolean shouldPostVisit(int v) {
+                return true;
+            }
+
+            @Override
+            protected boolean postVisit(int v) {
+                posts.add(v);
+                return false;
+            }
+        };
+        t.traverse(1);
+        assertEquals(asList(1), posts);
+        assertEquals(Traversal.Status.STOPPED, t.status());
+    }
 }
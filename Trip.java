@@ -1,11 +1,16 @@
 package trip;
 
-import graph.DirectedGraph;
+import graph.Components;
+import graph.DoubleColumn;
+import graph.Graph;
+import graph.GraphBuilder;
 import graph.LabeledGraph;
+import graph.Reordering;
 import graph.SimpleShortestPaths;
 
 import java.io.FileReader;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.InputMismatchException;
 import java.util.List;
@@ -29,6 +34,9 @@ class Trip {
     void readMap(String name) {
         int n;
         n = 0;
+        _locations = new ArrayList<>();
+        _roads = new ArrayList<>();
+        _roadEnds = new GraphBuilder(true);
         try {
             Scanner inp = new Scanner(new FileReader(name));
             while (inp.hasNext()) {
@@ -53,6 +61,33 @@ class Trip {
         } catch (NoSuchElementException excp) {
             error("entry incomplete at end of file");
         }
+        _roadEnds.vertices(_locations.size());
+        RoadMap map = new RoadMap(_roadEnds.build());
+        DoubleColumn xs = map.vertexColumn(X), ys = map.vertexColumn(Y),
+            lengths = map.edgeColumn(LENGTH);
+        for (int v = 1; v <= _locations.size(); v += 1) {
+            Location loc = _locations.get(v - 1);
+            map.setLabel(v, loc);
+            xs.set(v, loc.x());
+            ys.set(v, loc.y());
+        }
+        for (PendingRoad r : _roads) {
+            map.setLabel(r._from, r._to, r._road);
+            map.setValue(lengths, r._from, r._to, r._road.length());
+        }
+        /* Renumbering keeps each location's roads in the same order, so
+         * the search makes the same choices among equally short routes
+         * and prints the same directions. */
+        Reordering order = Reordering.hilbert(map, xs::get, ys::get);
+        _map = order.apply(map).freeze();
+        _sites.replaceAll((site, v) -> order.newId(v));
+        _xs = _map.vertexColumn(X);
+        _ys = _map.vertexColumn(Y);
+        _lengths = _map.edgeColumn(LENGTH);
+        _components = Components.connected(_map);
+        _locations = null;
+        _roads = null;
+        _roadEnds = null;
     }
 
     /**
@@ -76,6 +111,9 @@ class Trip {
                 error("No location named %s", dests.get(i - 1));
             } else if (to == null) {
                 error("No location named %s", dests.get(i));
+            } else if (!_components.same(from, to)) {
+                error("No route from %s to %s", dests.get(i - 1),
+                      dests.get(i));
             }
             TripPlan plan = new TripPlan(from, to);
             plan.setPaths();
@@ -146,8 +184,8 @@ class Trip {
         if (_sites.containsKey(name)) {
             error("multiple entries for %s", name);
         }
-        int v = _map.add(new Location(name, x, y));
-        _sites.put(name, v);
+        _locations.add(new Location(name, x, y));
+        _sites.put(name, _locations.size());
     }
 
     /**
@@ -160,28 +198,84 @@ class Trip {
                          Direction dir, String to) {
         Integer v0 = _sites.get(from),
                 v1 = _sites.get(to);
-        if (v0 == 0 || v1 == 0) {
-            throw new AssertionError("Error: SOME KINDA ERROR");
-        }
         if (v0 == null) {
             error("location %s not defined", from);
         } else if (v1 == null) {
             error("location %s not defined", to);
         }
         Road r1 = new Road(name, dir, length);
-        _map.add(v0, v1, r1);
+        _roadEnds.add(v0, v1);
+        _roads.add(new PendingRoad(v0, v1, r1));
         Road r2 = new Road(name, dir.reverse(), length);
-        _map.add(v1, v0, r2);
+        _roadEnds.add(v1, v0);
+        _roads.add(new PendingRoad(v1, v0, r2));
     }
 
     /**
-     * Represents the network of Locations and Roads.
+     * Names of the columns of _map holding the coordinates of Locations
+     * and the lengths of Roads.
      */
-    private RoadMap _map = new RoadMap();
+    private static final String X = "x", Y = "y", LENGTH = "length";
+
     /**
-     * Mapping of Location names to corresponding map vertices.
+     * Represents the network of Locations and Roads.  Once the map has
+     * been read, its vertices are renumbered in Hilbert-curve order of
+     * their positions, so that nearby locations are stored together, and
+     * it is frozen.
+     */
+    private LabeledGraph<Location, Road> _map;
+    /**
+     * Connected components of _map, which no route leaves.
+     */
+    private Components _components;
+    /**
+     * Coordinates of the Locations of _map, by vertex.
+     */
+    private DoubleColumn _xs, _ys;
+    /**
+     * Lengths of the Roads of _map, by edge id.
+     */
+    private DoubleColumn _lengths;
+    /**
+     * Mapping of Location names to corresponding vertices of _map.
      */
     private HashMap<String, Integer> _sites = new HashMap<>();
+    /**
+     * While reading a map, the Locations read so far.  Location K
+     * becomes vertex K + 1 of _map.
+     */
+    private ArrayList<Location> _locations;
+    /**
+     * While reading a map, the road segments read so far.
+     */
+    private ArrayList<PendingRoad> _roads;
+    /**
+     * While reading a map, the edges of _map.
+     */
+    private GraphBuilder _roadEnds;
+
+    /**
+     * A road segment read from a map, awaiting its edge in _map.
+     */
+    private static class PendingRoad {
+        /**
+         * The segment ROAD from vertex FROM to vertex TO.
+         */
+        PendingRoad(int from, int to, Road road) {
+            _from = from;
+            _to = to;
+            _road = road;
+        }
+
+        /**
+         * End points of this segment.
+         */
+        private final int _from, _to;
+        /**
+         * Label of this segment.
+         */
+        private final Road _road;
+    }
 
     /**
      * A labeled directed graph of Locations whose edges are labeled by
@@ -189,10 +283,10 @@ class Trip {
      */
     private static class RoadMap extends LabeledGraph<Location, Road> {
         /**
-         * An empty RoadMap.
+         * A RoadMap whose roads are the edges of the directed graph G.
          */
-        RoadMap() {
-            super(new DirectedGraph());
+        RoadMap(Graph G) {
+            super(G);
         }
     }
 
@@ -205,7 +299,8 @@ class Trip {
          */
         TripPlan(int start, int dest) {
             super(_map, start, dest);
-            _finalLocation = _map.getLabel(dest);
+            _destX = _xs.get(dest);
+            _destY = _ys.get(dest);
         }
 
         @Override
@@ -216,19 +311,25 @@ class Trip {
             return _map.getLabel(u, v).length();
         }
 
+        @Override
+        protected DoubleColumn edgeWeights() {
+            return _lengths;
+        }
+
         @Override
         protected double estimatedDistance(int v) {
             if (_map.contains(v)) {
-                Location loc = _map.getLabel(v);
-                return loc.dist(_finalLocation);
+                double dx = _xs.get(v) - _destX;
+                double dy = _ys.get(v) - _destY;
+                return Math.sqrt(dx * dx + dy * dy);
             }
             return 0.0;
         }
 
         /**
-         * Location of the destination.
+         * Coordinates of the destination.
          */
-        private final Location _finalLocation;
+        private final double _destX, _destY;
 
     }
 
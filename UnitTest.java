@@ -5,8 +5,18 @@ package make;
  * may not be part of your make package per se (that is, it must be
  * possible to remove them and still have your package work). */
 
+import graph.GraphBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import org.junit.Test;
 import ucb.junit.textui;
+import static java.util.Arrays.asList;
 import static org.junit.Assert.*;
 
 /** Unit tests for the make package. */
@@ -21,4 +31,72 @@ public class UnitTest {
     public void dummyTest() {
     }
 
+    /** The builder Maker fills while reading a makefile loads its
+     *  edges into the dependency graph in one pass. */
+    @Test
+    public void dependsLoadTest() {
+        Depends depends = new Depends();
+        for (int k = 0; k < 3; k += 1) {
+            depends.add(null);
+        }
+        assertTrue(new GraphBuilder(true).add(1, 2).add(1, 3).add(1, 2)
+                   .addTo(depends));
+        assertEquals(2, depends.edgeSize());
+        assertEquals(3, depends.successor(1, 1));
+        assertEquals(1, depends.predecessor(3, 0));
+    }
+
+    /** Circular dependencies are all reported, in one error, before any
+     *  command is issued, even for targets that could have been built
+     *  first. */
+    @Test
+    public void cyclesTest() throws IOException {
+        String prefix = "Error: circular dependency: ";
+        String out = buildAndFail("top", "top: ok x", "\techo top",
+                                  "ok:", "\techo ok",
+                                  "x: y", "\techo x", "y: x", "\techo y");
+        assertEquals("", out);
+        assertTrue(_message.equals(prefix + "x y")
+                   || _message.equals(prefix + "y x"));
+
+        out = buildAndFail("top", "top: a", "\techo top",
+                           "a: b c", "\techo a", "b: a", "\techo b",
+                           "c: c", "\techo c");
+        assertEquals("", out);
+        assertTrue(_message.startsWith(prefix));
+        List<String> cycles = new ArrayList<>(
+            asList(_message.substring(prefix.length()).split("; ")));
+        Collections.sort(cycles);
+        assertEquals(2, cycles.size());
+        assertTrue(cycles.get(0).equals("a b") || cycles.get(0).equals("b a"));
+        assertEquals("c", cycles.get(1));
+    }
+
+    /** Build TARGET from a makefile containing LINES, expecting an
+     *  error, whose message is left in _message.  Returns what was
+     *  printed before the error. */
+    private String buildAndFail(String target, String... lines)
+        throws IOException {
+        Path makefile = Files.createTempFile("make", ".mk");
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            Files.write(makefile, asList(lines));
+            Maker maker = new Maker();
+            maker.readMakefile(makefile.toString());
+            System.setOut(new PrintStream(out, true));
+            maker.build(target);
+            fail("no error building " + target);
+        } catch (IllegalArgumentException excp) {
+            _message = excp.getMessage();
+        } finally {
+            System.setOut(stdout);
+            Files.delete(makefile);
+        }
+        return out.toString();
+    }
+
+    /** Message of the last error caught by buildAndFail. */
+    private String _message;
+
 }